@@ -0,0 +1,21 @@
+package wwwordz.game;
+
+/**
+ * <b>A monotonic clock, measuring time in nanoseconds from an arbitrary origin. 
+ * Rounds compute their stages with a clock, hence they are not affected by changes to wall-clock time 
+ * and tests may replace the system clock with a virtual clock.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public interface Clock {
+	
+	/**
+	 * Clock of the running Java virtual machine
+	 */
+	Clock SYSTEM = System::nanoTime;
+	
+	/**
+	 * Current time of this clock
+	 * @return time in nanoseconds
+	 */
+	long nanoTime();
+}
@@ -0,0 +1,178 @@
+package wwwordz.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import wwwordz.shared.Rank;
+
+/**
+ * <b>The players of a round ordered by points, kept up to date as points are set.
+ * Players with more points come first and players with the same points are ordered by nick.
+ * Players are kept in a concurrent skip list of entries, ordered by points and nick,
+ * and in a concurrent map from nick to entry. Updating the points of a player replaces its entry
+ * while holding only the lock of its nick in the map, hence players of a round update their points
+ * concurrently, in logarithmic time, without a global lock.
+ * Reading the leaderboard while it is updated is weakly consistent: a player being updated may be missed.
+ * Positions of players are only given by snapshots: a snapshot taken once updates have stopped,
+ * at the start of the ranking stage, lists all players and then gives positions and first players
+ * in constant time.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class Leaderboard
+extends java.lang.Object {
+
+	private final ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>();
+	private final ConcurrentHashMap<String,Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Create an empty leaderboard
+	 */
+	public Leaderboard() {}
+
+	/**
+	 * Add a player with no points, if not already in this leaderboard
+	 * @param player - to add
+	 */
+	public void add(Player player) {
+		entries.computeIfAbsent(player.getNick(), nick -> {
+			Entry entry = new Entry(player, 0);
+			ordered.add(entry);
+			return entry;
+		});
+	}
+
+	/**
+	 * Set the points of a player in this leaderboard, adding it if needed
+	 * @param player - with changed points
+	 * @param points - of player
+	 */
+	public void update(Player player, int points) {
+		entries.compute(player.getNick(), (nick, old) -> {
+			if(old != null) {
+				if(old.points == points) return old;
+				ordered.remove(old);
+			}
+			Entry entry = new Entry(player, points);
+			ordered.add(entry);
+			return entry;
+		});
+	}
+
+	/**
+	 * Number of players in this leaderboard
+	 * @return size
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * First players of this leaderboard
+	 * @param count - maximum number of players
+	 * @return list of ranks, with most points first
+	 */
+	public List<Rank> getTop(int count) {
+		List<Rank> ranks = new ArrayList<>(Math.max(0, Math.min(count, entries.size())));
+		Iterator<Entry> iterator = ordered.iterator();
+		while(ranks.size() < count && iterator.hasNext())
+			ranks.add(iterator.next().toRank());
+		return ranks;
+	}
+
+	/**
+	 * All players of this leaderboard
+	 * @return list of ranks, with most points first
+	 */
+	public List<Rank> getRanking() {
+		return getTop(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Snapshot of this leaderboard, listing all players in order
+	 * @return snapshot
+	 */
+	public Leaderboard.Snapshot snapshot() {
+		return new Snapshot(getRanking());
+	}
+
+	/**
+	 * <b>An immutable snapshot of a leaderboard: the ranking of its players when it was taken
+	 * and the position of each of them.</b><br>
+	 */
+	public static class Snapshot
+	extends java.lang.Object {
+
+		private final List<Rank> ranking;
+		private final Map<String,Integer> positions;
+
+		Snapshot(List<Rank> ranking) {
+			this.ranking = Collections.unmodifiableList(ranking);
+			this.positions = new HashMap<>(2 * ranking.size());
+			for(int position=0; position<ranking.size(); position++)
+				positions.put(ranking.get(position).getNick(), position);
+		}
+
+		/**
+		 * All players of this snapshot
+		 * @return unmodifiable list of ranks, with most points first
+		 */
+		public List<Rank> getRanking() {
+			return ranking;
+		}
+
+		/**
+		 * Position of a player in this snapshot, counting from 0
+		 * @param nick - of player
+		 * @return position or -1 if player is not in this snapshot
+		 */
+		public int getPosition(java.lang.String nick) {
+			Integer position = positions.get(nick);
+			return position == null ? -1 : position;
+		}
+
+		/**
+		 * First players of this snapshot
+		 * @param count - maximum number of players
+		 * @return unmodifiable list of ranks, with most points first
+		 */
+		public List<Rank> getTop(int count) {
+			return ranking.subList(0, Math.max(0, Math.min(count, ranking.size())));
+		}
+	}
+
+	/**
+	 * <b>A player in the leaderboard, with its points in the round.
+	 * Entries are immutable and replaced when points change.
+	 * Entries with more points come first, then ordered by nick.</b><br>
+	 */
+	private static class Entry
+	extends java.lang.Object
+	implements Comparable<Entry> {
+
+		final String nick;
+		final int points;
+		final Player player;
+
+		Entry(Player player, int points) {
+			this.nick = player.getNick();
+			this.points = points;
+			this.player = player;
+		}
+
+		Rank toRank() {
+			return new Rank(nick, points, player.getAccumulated());
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int order = Integer.compare(other.points, points);
+			return order != 0 ? order : nick.compareTo(other.nick);
+		}
+	}
+}
@@ -1,69 +1,269 @@
 package wwwordz.game;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import wwwordz.shared.Configs;
 import wwwordz.shared.Puzzle;
+import wwwordz.shared.PuzzleSnapshot;
 import wwwordz.shared.Rank;
 import wwwordz.shared.WWWordzException;
 
 /**
  * <b>This class is a singleton and acts as a facade for other classes in this package. 
- * Methods in this class are delegated in instances of these classes.</b><br>
+ * Methods in this class are delegated in instances of these classes. 
+ * The manager hosts a room per available processor, each with its own sequence of rounds. 
+ * Rounds of different rooms are staggered by a fraction of the round duration, 
+ * hence the stages of rooms, and their bursts of requests, don't all happen at once. 
+ * A player joins the room given by the hash of its nick or, if that room isn't accepting players, 
+ * the following room that is. Later requests of the player go to the room where it was registered, 
+ * and a player already registered in the current round of a room is registered again in that room only. 
+ * Registrations of the same nick are serialized by a lock chosen by the hash of the nick, 
+ * hence a player is never registered in two rooms at once. 
+ * Methods without a nick are deprecated: they refer to the first room, which may not be the room of a player. 
+ * The scheduler creating the rounds of rooms is given with the clock, hence managers with a virtual clock 
+ * can be given a scheduler that is shut down when they are no longer needed.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Manager
 extends java.lang.Object {
 	
-	static final java.util.concurrent.ScheduledExecutorService worker = Executors.newScheduledThreadPool(1);	
+	/**
+	 * Number of rooms of the manager
+	 */
+	static final int ROOMS = Runtime.getRuntime().availableProcessors();
+	static final ScheduledExecutorService worker = Executors.newScheduledThreadPool(ROOMS);	
 	static final long INITIAL_TIME = 0;
+	/**
+	 * Number of locks serializing registrations of the same nick
+	 */
+	static final int REGISTRATION_LOCKS = 64;
 	private static Manager instance = null;
-	Round round = null;
+	final Clock clock;
+	final List<Room> rooms;
+	private final Object[] registrationLocks = new Object[REGISTRATION_LOCKS];
 	
 	private Manager() {
-		round = new Round();
-		Runnable run = () -> round = new Round();
-		worker.scheduleAtFixedRate(run, Round.getRoundDuration(), Round.getRoundDuration(), TimeUnit.MILLISECONDS);
+		this(Clock.SYSTEM, worker, ROOMS, Configs.ROOM_CAPACITY);
+	}
+	
+	/**
+	 * Create a manager with given number of rooms, whose first rounds start staggered from now
+	 * @param clock - to measure stages
+	 * @param worker - scheduler creating the rounds of rooms
+	 * @param count - number of rooms
+	 * @param capacity - maximum number of players in a round of each room
+	 */
+	Manager(Clock clock, ScheduledExecutorService worker, int count, int capacity) {
+		this.clock = clock;
+		long now = clock.nanoTime();
+		long duration = Round.getJoinStageDuration() + Round.getPlayStageDuration() 
+				+ Round.getReportStageDuration() + Round.getRankingStageSuration();
+		long offset = TimeUnit.MILLISECONDS.toNanos(duration) / count;
+		List<Room> list = new ArrayList<>(count);
+		for(int id=0; id<count; id++)
+			list.add(new Room(id, capacity, clock, now - id * offset, worker));
+		this.rooms = Collections.unmodifiableList(list);
+		for(int i=0; i<REGISTRATION_LOCKS; i++)
+			registrationLocks[i] = new Object();
 	}
 	
 	/**
 	 * Single instance of Manager;
 	 * @return instance
 	 */
-	public static Manager getInstance() {
+	public static synchronized Manager getInstance() {
 		if(instance==null) instance = new Manager();
 		return instance;
 	}
 	
+	/**
+	 * Rooms of this manager
+	 * @return unmodifiable list of rooms
+	 */
+	public List<Room> getRooms() {
+		return rooms;
+	}
+	
+	/**
+	 * Room of this manager
+	 * @param id - of room
+	 * @return room
+	 */
+	public Room getRoom(int id) {
+		return rooms.get(id);
+	}
+	
+	/**
+	 * Number of players in the current round of each room
+	 * @return array of loads, indexed by room
+	 */
+	public int[] getLoads() {
+		int[] loads = new int[rooms.size()];
+		for(int id=0; id<loads.length; id++)
+			loads[id] = rooms.get(id).getLoad();
+		return loads;
+	}
+	
+	/**
+	 * Room given by the hash of a nick
+	 */
+	private int home(java.lang.String nick) {
+		return Math.floorMod(nick.hashCode(), rooms.size());
+	}
+	
+	/**
+	 * Room to join by a player: the room where it is already registered or, if not registered in any room, 
+	 * the first room accepting players, starting from its home room
+	 * @param nick - of player
+	 * @return room or null if no room accepts players
+	 */
+	Room place(java.lang.String nick) {
+		Room registered = find(nick);
+		if(registered != null) return registered;
+		int home = home(nick), count = rooms.size();
+		for(int i=0; i<count; i++) {
+			Room room = rooms.get((home + i) % count);
+			if(room.accepts())
+				return room;
+		}
+		return null;
+	}
+	
+	/**
+	 * Room where a player is registered, starting the search from its home room
+	 * @param nick - of player
+	 * @return room
+	 * @throws WWWordzException - if player is not registered in any room
+	 */
+	Room locate(java.lang.String nick) throws WWWordzException {
+		Room room = find(nick);
+		if(room == null)
+			throw new WWWordzException("This is not a valid player.");
+		return room;
+	}
+	
+	/**
+	 * Room whose current round has a player, starting the search from its home room
+	 */
+	private Room find(java.lang.String nick) {
+		int home = home(nick), count = rooms.size();
+		for(int i=0; i<count; i++) {
+			Room room = rooms.get((home + i) % count);
+			if(room.getRound().hasPlayer(nick))
+				return room;
+		}
+		return null;
+	}
+	
+	/**
+	 * Time to next play stage in the default room
+	 * @return time in milliseconds
+	 * @deprecated the default room may not be the room of a player; use {@link #timeToNextPlay(String)}
+	 */
+	@Deprecated
 	public long timeToNextPlay() {
-		return round.getTimetoNextPlay();
+		return rooms.get(0).getRound().getTimetoNextPlay();
 	}
 	
 	/**
-	 * Register user with nick and password for current round
+	 * Time to next play stage in the room of a player: the room where it is registered or, 
+	 * if not registered, the room it would join now or its home room
+	 * @param nick - of player
+	 * @return time in milliseconds
+	 */
+	public long timeToNextPlay(java.lang.String nick) {
+		Room room = place(nick);
+		if(room==null) room = rooms.get(home(nick));
+		return room.getRound().getTimetoNextPlay();
+	}
+	
+	/**
+	 * Register user with nick and password for current round of a room. 
+	 * A user already registered in the current round of a room is registered again in that room. 
+	 * Otherwise rooms accepting players are tried from its home room, 
+	 * each round reserving a place and adding the player in a single step, 
+	 * and a room whose round fills up meanwhile is skipped.
 	 * @param nick - of user to register
 	 * @param password - of user to register
-	 * @return time in seconds for next found
-	 * @throws WWWordzException - if user is invalid
+	 * @return time in milliseconds for next play stage
+	 * @throws WWWordzException - if user is invalid, not in join stage of its room or no room accepts players
 	 */
 	public long register(java.lang.String nick,
             			 java.lang.String password)
     throws WWWordzException {
-		return round.register(nick,password);
+		if(nick == null)
+			throw new WWWordzException("This is not a valid user.");
+		synchronized(registrationLocks[Math.floorMod(nick.hashCode(), REGISTRATION_LOCKS)]) {
+			Room registered = find(nick);
+			if(registered != null)
+				return registered.getRound().register(nick,password);
+			
+			int home = home(nick), count = rooms.size();
+			for(int i=0; i<count; i++) {
+				Room room = rooms.get((home + i) % count);
+				Round round = room.getRound();
+				if(room.accepts()) {
+					long time = round.join(nick,password);
+					if(time >= 0) return time;
+				}
+			}
+		}
+		throw new WWWordzException("There is no room to join in this stage.");
 	}
 	
 	/**
-	 * Get table of current round
+	 * Get table of current round of the default room
 	 * @return table
 	 * @throws WWWordzException - if game has not started
+	 * @deprecated the default room may not be the room of a player; use {@link #getPuzzle(String)}
 	 */
+	@Deprecated
 	public Puzzle getPuzzle()
     throws WWWordzException {
-		return round.getPuzzle();
+		return rooms.get(0).getRound().getPuzzle();
+	}
+	
+	/**
+	 * Get table of current round of the room of a player
+	 * @param nick - of player
+	 * @return table
+	 * @throws WWWordzException - if player is not registered or game has not started
+	 */
+	public Puzzle getPuzzle(java.lang.String nick)
+    throws WWWordzException {
+		return locate(nick).getRound().getPuzzle();
+	}
+	
+	/**
+	 * Get snapshot of the puzzle of current round of the default room, encoded once and shared by all players
+	 * @return snapshot
+	 * @throws WWWordzException - if game has not started
+	 * @deprecated the default room may not be the room of a player; use {@link #getPuzzleSnapshot(String)}
+	 */
+	@Deprecated
+	public PuzzleSnapshot getPuzzleSnapshot()
+    throws WWWordzException {
+		return rooms.get(0).getRound().getPuzzleSnapshot();
+	}
+	
+	/**
+	 * Get snapshot of the puzzle of current round of the room of a player
+	 * @param nick - of player
+	 * @return snapshot
+	 * @throws WWWordzException - if player is not registered or game has not started
+	 */
+	public PuzzleSnapshot getPuzzleSnapshot(java.lang.String nick)
+    throws WWWordzException {
+		return locate(nick).getRound().getPuzzleSnapshot();
 	}
 	
 	/**
-	 * Set number of points obtained by user in current round
+	 * Set number of points obtained by user in current round of its room
 	 * @param nick - of user
 	 * @param points - to set
 	 * @throws WWWordzException - if game is not over or reporting has ended
@@ -71,18 +271,54 @@ extends java.lang.Object {
 	public void setPoints(java.lang.String nick,
             			  int points)
     throws WWWordzException {
-		round.setPoints(nick, points);
+		locate(nick).getRound().setPoints(nick, points);
+	}
+	
+	/**
+	 * Submit the words found by user in current round of its room, scored against the solutions of its puzzle
+	 * @param nick - of user
+	 * @param words - found by user
+	 * @return points of user
+	 * @throws WWWordzException - if game is not over or reporting has ended
+	 */
+	public int submit(java.lang.String nick,
+					  Iterable<java.lang.String> words)
+    throws WWWordzException {
+		return locate(nick).getRound().submit(nick, words);
 	}
 	
 	/**
-	 * List of players in current round sorted by points
+	 * List of players in current round of the default room sorted by points
 	 * @return list of ranks
 	 * @throws WWWordzException - if players can still report values
+	 * @deprecated the default room may not be the room of a player; use {@link #getRanking(String)}
 	 */
+	@Deprecated
 	public java.util.List<Rank> getRanking()
     throws WWWordzException {
-		return round.getRanking();
+		return rooms.get(0).getRound().getRanking();
 	}
 	
+	/**
+	 * List of players in current round of the room of a player sorted by points
+	 * @param nick - of player
+	 * @return list of ranks
+	 * @throws WWWordzException - if player is not registered or players can still report values
+	 */
+	public java.util.List<Rank> getRanking(java.lang.String nick)
+    throws WWWordzException {
+		return locate(nick).getRound().getRanking();
+	}
+	
+	/**
+	 * Position of a player in the ranking of current round of its room, counting from 0
+	 * @param nick - of player
+	 * @return position
+	 * @throws WWWordzException - if player is not registered or players can still report values
+	 */
+	public int getPosition(java.lang.String nick)
+    throws WWWordzException {
+		return locate(nick).getRound().getPosition(nick);
+	}
 	
 }
@@ -67,7 +67,7 @@ implements java.io.Serializable {
 	 * Current points of this player
 	 * @return points of player
 	 */
-	public int getPoints() {
+	public synchronized int getPoints() {
 		return this.points;
 	}
 	
@@ -75,7 +75,7 @@ implements java.io.Serializable {
 	 * Update points of current round for this player These points are added to accumulated points
 	 * @param points - of player
 	 */
-	public void setPoints(int points) {
+	public synchronized void setPoints(int points) {
 		this.points = points;
 		this.accumulated += points;
 	}
@@ -84,7 +84,7 @@ implements java.io.Serializable {
 	 * Current accumulated points of this player
 	 * @return accumulated points of this player
 	 */
-	public int getAccumulated() {
+	public synchronized int getAccumulated() {
 		return this.accumulated;
 	}
 	
@@ -92,7 +92,7 @@ implements java.io.Serializable {
 	 * Update accumulated points of this player
 	 * @param accumulated - points
 	 */
-	public void setAccumulated(int accumulated) {
+	public synchronized void setAccumulated(int accumulated) {
 		this.accumulated = accumulated;
 	}
 }
@@ -3,16 +3,23 @@ package wwwordz.game;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import wwwordz.shared.WWWordzException;
 
 /**
  * <b>Persistent collection of players indexed by nick.
  * Each player has nick, password, points and accumulated points. 
- * Data is persisted using serialization and backup each time a new user is created or points are changed.</b><br>
+ * Data is persisted using serialization and backup each time a new user is created or points are changed. 
+ * Players are kept in a concurrent map, hence players can be verified concurrently without a global lock; 
+ * the serialized form keeps the original hash map field, hence existing data files can still be restored.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Players
@@ -27,7 +34,10 @@ implements java.io.Serializable {
 	private static Players instance = null;
 	private static File homeDir = new File(System.getProperty("user.dir"));
 	private static File playersInfoFile = new File(homeDir, "players.ser");
-	private HashMap<String, Player> playersHashMap = new HashMap<>();
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("playersHashMap", HashMap.class)
+	};
+	private transient ConcurrentHashMap<String, Player> playersHashMap = new ConcurrentHashMap<>();
 
 	private static ObjectOutputStream stream1;
 
@@ -56,7 +66,7 @@ implements java.io.Serializable {
 	 * Get single instance of this class
 	 * @return singleton
 	 */
-	public static Players getInstance()  {
+	public static synchronized Players getInstance()  {
 		if(instance==null) {
 			try {
 				if(restore()!=null) instance = restore();
@@ -73,20 +83,13 @@ implements java.io.Serializable {
 	 * Verify player's password. If player doesn't exist yet then it is created with given password.
 	 * @param nick - of player
 	 * @param password - of player
-	 * @return true if passwords match; false otherwise
+	 * @return true if passwords match; false otherwise, or if nick is null
 	 */
 	public boolean verify(java.lang.String nick,
             			  java.lang.String password) {
-		if(playersHashMap.containsKey(nick)) {
-			String playerPassword = playersHashMap.get(nick).password;
-			if(playerPassword.equals(password)) return true;
-		}
-		else {
-			Player newPlayer = new Player(nick, password);
-			playersHashMap.put(nick, newPlayer);
-			return true;
-		}
-		return false;
+		if(nick == null) return false;
+		Player player = playersHashMap.computeIfAbsent(nick, key -> new Player(nick, password));
+		return Objects.equals(player.password, password);
 	}
 	
 	/**
@@ -108,10 +111,10 @@ implements java.io.Serializable {
 	public void addPoints(java.lang.String nick,
             			  int points)
     throws WWWordzException {
-		if(!playersHashMap.containsKey(nick)) 
+		Player player = playersHashMap.get(nick);
+		if(player == null) 
 			throw new WWWordzException("This is not a valid player.");
 		else {
-			Player player = playersHashMap.get(nick);
 			player.setPoints(points);
 			backup();
 		}
@@ -126,14 +129,7 @@ implements java.io.Serializable {
 	 * This method is used for testing purposes only.
 	 */
 	public void cleanup() {
-		String[] nicks = new String[playersHashMap.size()];
-		int i=0;
-		for(String nick : playersHashMap.keySet()) {
-			nicks[i++] = nick;
-		}
-		for(int j=0; j<nicks.length; j++) {
-			playersHashMap.remove(nicks[j]);
-		}		
+		playersHashMap.clear();
 	}
 	
 	/**
@@ -175,4 +171,18 @@ implements java.io.Serializable {
 		}
 		return playersData;
 	}
-}
\ No newline at end of file
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("playersHashMap", new HashMap<>(playersHashMap));
+		out.writeFields();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		Map<String, Player> map = (Map<String, Player>) fields.get("playersHashMap", null);
+		playersHashMap = new ConcurrentHashMap<>();
+		if(map != null) playersHashMap.putAll(map);
+	}
+}
@@ -0,0 +1,132 @@
+package wwwordz.game;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <b>A room where players compete in a sequence of rounds. 
+ * Rounds of a room follow each other without gaps: while a round is in its ranking stage the next round, 
+ * puzzle included, is created in the background to start when the current round ends, 
+ * and at that moment it replaces the current round with a single volatile write. 
+ * If the next round can't be created it is logged and tried again shortly after, 
+ * starting when the current round ends or, if that time has passed, when it is finally created. 
+ * Rooms of a manager share its scheduler, which creates their rounds, and all rooms share the pool of puzzles.
+ * A room accepts players while its round is in the join stage and has less players than its capacity, 
+ * which its rounds enforce when players register.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class Room
+extends java.lang.Object {
+	
+	/**
+	 * Delay before trying again to create a round, in milliseconds
+	 */
+	static final long RETRY_DELAY = 100;
+	private static final Logger LOGGER = Logger.getLogger(Room.class.getName());
+	
+	private final int id;
+	private final int capacity;
+	private final Clock clock;
+	private final ScheduledExecutorService worker;
+	volatile Round round;
+	
+	/**
+	 * Create a room with a first round starting at given time
+	 * @param id - of room
+	 * @param capacity - maximum number of players in a round
+	 * @param clock - to measure stages
+	 * @param start - of first round, in nanoseconds of clock
+	 * @param worker - scheduler creating rounds
+	 */
+	Room(int id, int capacity, Clock clock, long start, ScheduledExecutorService worker) {
+		this.id = id;
+		this.capacity = capacity;
+		this.clock = clock;
+		this.worker = worker;
+		this.round = new Round(clock, start, capacity);
+		schedulePreparation(round);
+	}
+	
+	/**
+	 * Schedule the creation of the round following the given one for the start of its ranking stage
+	 */
+	private void schedulePreparation(Round current) {
+		worker.schedule(() -> prepare(current), current.ranking - clock.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Create the round following the given one, puzzle included, and schedule its publication 
+	 * for the end of the given round, when the next round starts. 
+	 * If the round can't be created then its creation is scheduled again.
+	 */
+	private void prepare(Round current) {
+		Round next;
+		try {
+			next = new Round(clock, Math.max(current.end, clock.nanoTime()), capacity);
+		}
+		catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Failed to create the next round of room "+id, e);
+			worker.schedule(() -> prepare(current), RETRY_DELAY, TimeUnit.MILLISECONDS);
+			return;
+		}
+		worker.schedule(() -> publish(next), next.join - clock.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Make a prepared round the current round. 
+	 * If the creation of the following round can't be scheduled then it is tried shortly after.
+	 */
+	private void publish(Round next) {
+		round = next;
+		try {
+			schedulePreparation(next);
+		}
+		catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Failed to schedule the next round of room "+id, e);
+			worker.schedule(() -> prepare(next), RETRY_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Current round of this room
+	 * @return round
+	 */
+	public Round getRound() {
+		return round;
+	}
+	
+	/**
+	 * Identifier of this room, its position in the manager
+	 * @return id
+	 */
+	public int getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Maximum number of players in a round of this room
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+	
+	/**
+	 * Number of players in the current round of this room
+	 * @return number of players
+	 */
+	public int getLoad() {
+		return round.getPlayerCount();
+	}
+	
+	/**
+	 * Check if the current round of this room accepts new players
+	 * @return true if in join stage and not full; false otherwise
+	 */
+	boolean accepts() {
+		Round current = round;
+		return current.currentStage() == Round.Stage.join && current.getPlayerCount() < capacity;
+	}
+}
@@ -1,16 +1,15 @@
 package wwwordz.game;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import wwwordz.puzzle.Generator;
+import wwwordz.puzzle.PuzzlePool;
 import wwwordz.shared.Configs;
 import wwwordz.shared.Puzzle;
+import wwwordz.shared.PuzzleSnapshot;
 import wwwordz.shared.Rank;
 import wwwordz.shared.WWWordzException;
 
@@ -24,10 +23,21 @@ import wwwordz.shared.WWWordzException;
  * The duration of each stage can be checked or changed with static setters and getters. 
  * The following method should be executed in the associated stages. <br>
  * 1. register() - join <br>
- * 2. getPuzzle() - play <br>
- * 3. setPoints() - register <br>
+ * 2. getPuzzle() or getPuzzleSnapshot() - play <br>
+ * 3. setPoints() or submit() - report <br>
  * 4. getRanking() - ranking <br>
- *When executed outside their stages these methods raise a WWWordzException.</b><br>
+ *When executed outside their stages these methods raise a WWWordzException. 
+ * Players of a round are kept in a concurrent map of slots, each with the points of the player in this round, 
+ * hence players register and report points concurrently without a global lock. 
+ * A round may have a capacity: a place is reserved with an atomic counter before a player is added, 
+ * hence concurrent registrations never exceed it. 
+ * Points are also kept ordered in a leaderboard of the round, updated each time points are set 
+ * while holding only the locks of that player, 
+ * and the ranking, positions and first players are read from a snapshot of the leaderboard 
+ * taken once, when first requested in the ranking stage. 
+ * Stages are measured with a monotonic clock and their limits are computed in nanoseconds 
+ * when the round is created, hence rounds are not affected by changes to wall-clock time. 
+ * A round may be given a virtual clock to simulate its stages without waiting for them.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Round
@@ -37,10 +47,49 @@ extends java.lang.Object {
 	private static long playStageDuration    	=  Configs.PLAY_STAGE_DURATION;
 	private static long reportStageDuration 	=  Configs.REPORT_STAGE_DURATION;
 	private static long rankingStageSuration 	=  Configs.RANKING_STAGE_DURATION;
-	private static long roundDuration           =  0L;
-	private static List<Rank> rankingGeral = null;
+	private static long roundDuration           =  joinStageDuration + playStageDuration 
+														+ reportStageDuration + rankingStageSuration;
 	
-	public Round() {}
+	/**
+	 * Create a round starting now, measured with the system clock
+	 */
+	public Round() {
+		this(Clock.SYSTEM);
+	}
+	
+	/**
+	 * Create a round starting now, measured with given clock
+	 * @param clock - to measure stages
+	 */
+	public Round(Clock clock) {
+		this(clock, clock.nanoTime());
+	}
+	
+	/**
+	 * Create a round starting at given time, measured with given clock. 
+	 * A round may be created before it starts, hence its puzzle is ready when its join stage begins.
+	 * @param clock - to measure stages
+	 * @param start - time of the join stage, in nanoseconds of clock
+	 */
+	public Round(Clock clock, long start) {
+		this(clock, start, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Create a round with a maximum number of players, starting at given time, measured with given clock.
+	 * @param clock - to measure stages
+	 * @param start - time of the join stage, in nanoseconds of clock
+	 * @param capacity - maximum number of players
+	 */
+	public Round(Clock clock, long start, int capacity) {
+		this.clock = clock;
+		this.capacity = capacity;
+		this.join = start;
+		this.play = join + TimeUnit.MILLISECONDS.toNanos(joinStageDuration);
+		this.report = play + TimeUnit.MILLISECONDS.toNanos(playStageDuration);
+		this.ranking = report + TimeUnit.MILLISECONDS.toNanos(reportStageDuration);
+		this.end = ranking + TimeUnit.MILLISECONDS.toNanos(rankingStageSuration);
+	}
 	
 	/**
 	 * Duration of join stage in milliseconds
@@ -128,21 +177,59 @@ extends java.lang.Object {
 	
 	enum Relative { before, after };
 	enum Stage { join, play, report, ranking };
-	private static final Generator generator  = new Generator();
+	private static final PuzzlePool pool  = PuzzlePool.getInstance();
 	private static final Players players = Players.getInstance();
 	
-	Date join = new Date();
-	Date play = new Date(join.getTime() 
-			+ joinStageDuration);
-	Date report = new Date(play.getTime() 
-			+ playStageDuration);
-	Date ranking = new Date(report.getTime() 
-			+ reportStageDuration);
-	Date end = new Date(ranking.getTime() 
-			+ rankingStageSuration);
+	final Clock clock;
+	final long join;
+	final long play;
+	final long report;
+	final long ranking;
+	final long end;
+	final int capacity;
+	private final AtomicInteger reserved = new AtomicInteger();
 	
-	Puzzle puzzle = generator.generate();
-	Map<java.lang.String,Player> roundPlayers = new HashMap<>();
+	Puzzle puzzle = pool.take();
+	final PuzzleSnapshot snapshot = new PuzzleSnapshot(puzzle);
+	final Scorer scorer = new Scorer(puzzle);
+	ConcurrentMap<java.lang.String,Slot> roundPlayers = new ConcurrentHashMap<>();
+	final Leaderboard leaderboard = new Leaderboard();
+	private volatile Leaderboard.Snapshot standings = null;
+	
+	/**
+	 * <b>A player registered in a round, with the points of the player in that round.</b><br>
+	 */
+	static class Slot
+	extends java.lang.Object {
+		
+		final Player player;
+		final AtomicInteger points = new AtomicInteger();
+		private final Leaderboard leaderboard;
+		
+		Slot(Player player, Leaderboard leaderboard) {
+			this.player = player;
+			this.leaderboard = leaderboard;
+		}
+		
+		/**
+		 * Set points of player in this round, also added to the accumulated points of player 
+		 * and updated in the leaderboard of the round
+		 * @param points - to set
+		 */
+		synchronized void setPoints(int points) {
+			this.points.set(points);
+			player.setPoints(points);
+			leaderboard.update(player, points);
+		}
+		
+		/**
+		 * Points of player in this round
+		 * @return points
+		 */
+		int getPoints() {
+			return points.get();
+		}
+	}
 	
 	/**
 	 * Time in milliseconds to the next play stage. 
@@ -150,35 +237,101 @@ extends java.lang.Object {
 	 * @return time in milliseconds
 	 */
 	public long getTimetoNextPlay() {
-		Date currentTime = new Date();
-		if(currentTime.before(play)) {
-			return play.getTime() - currentTime.getTime();
+		long currentTime = clock.nanoTime();
+		if(currentTime < play) {
+			return toMillis(play - currentTime);
 		}
 		else {
-			return end.getTime() - currentTime.getTime() + joinStageDuration;
+			return toMillis(end - currentTime) + joinStageDuration;
 		}
 	}
 	
+	/**
+	 * Convert a time to wait from nanoseconds to milliseconds, rounding up
+	 */
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+	}
+	
+	/**
+	 * Number of players registered in this round
+	 * @return number of players
+	 */
+	public int getPlayerCount() {
+		return roundPlayers.size();
+	}
+	
+	/**
+	 * Check if a player is registered in this round
+	 * @param nick - of player
+	 * @return true if registered; false otherwise
+	 */
+	public boolean hasPlayer(java.lang.String nick) {
+		return roundPlayers.containsKey(nick);
+	}
+	
+	/**
+	 * Stage of this round at the current time of its clock. 
+	 * After the end of the round it remains in the ranking stage.
+	 * @return stage
+	 */
+	Stage currentStage() {
+		return stageAt(clock.nanoTime());
+	}
+	
+	private Stage stageAt(long time) {
+		if(time < play) return Stage.join;
+		if(time < report) return Stage.play;
+		if(time < ranking) return Stage.report;
+		return Stage.ranking;
+	}
+	
 	/**
 	 * Register user with nick and password for this round
 	 * @param nick - of registered user
 	 * @param password - of registered user
 	 * @return time in milliseconds for next round
-	 * @throws WWWordzException - if not it join stage or user is invalid
+	 * @throws WWWordzException - if not it join stage, user is invalid or this round is full
 	 */
 	public long register(java.lang.String nick,
             			 java.lang.String password)
     throws WWWordzException {
-		Date currentTime = new Date();
+		long time = join(nick, password);
+		if(time < 0)
+			throw new WWWordzException("This round is full.");
+		return time;
+	}
+	
+	/**
+	 * Register user with nick and password for this round, if already registered or there is place for it. 
+	 * A place is reserved before the player is added and released if the player was already registered.
+	 * @param nick - of registered user
+	 * @param password - of registered user
+	 * @return time in milliseconds for next round, or -1 if this round is full
+	 * @throws WWWordzException - if not it join stage or user is invalid
+	 */
+	long join(java.lang.String nick,
+			  java.lang.String password)
+	throws WWWordzException {
+		long currentTime = clock.nanoTime();
 		
-		if(currentTime.after(play)) 
+		if(stageAt(currentTime) != Stage.join) 
 			throw new WWWordzException("The register is not valid in this stage.");
 		if(!players.verify(nick,password)) 
 			throw new WWWordzException("This is not a valid user.");
-			
-		Player playerToJoin = players.getPlayer(nick);
-		roundPlayers.put(nick, playerToJoin);
-		return play.getTime() - currentTime.getTime();
+		
+		if(!roundPlayers.containsKey(nick)) {
+			if(reserved.incrementAndGet() > capacity) {
+				reserved.decrementAndGet();
+				return -1;
+			}
+			Slot slot = new Slot(players.getPlayer(nick), leaderboard);
+			if(roundPlayers.putIfAbsent(nick, slot) == null)
+				leaderboard.add(slot.player);
+			else
+				reserved.decrementAndGet();
+		}
+		return toMillis(play - currentTime);
 	}
 	
 	/**
@@ -187,14 +340,30 @@ extends java.lang.Object {
 	 * @throws WWWordzException - if not in play stage
 	 */
 	public Puzzle getPuzzle() throws WWWordzException {
-		Date currentTime = new Date();
+		checkPlayStage();
+		
+		return puzzle;
+	}
+	
+	/**
+	 * Get snapshot of the puzzle of this round, encoded when the round was created 
+	 * and shared by all players
+	 * @return snapshot
+	 * @throws WWWordzException - if not in play stage
+	 */
+	public PuzzleSnapshot getPuzzleSnapshot() throws WWWordzException {
+		checkPlayStage();
 		
-		if(currentTime.before(play)) 
+		return snapshot;
+	}
+	
+	private void checkPlayStage() throws WWWordzException {
+		Stage stage = currentStage();
+		
+		if(stage == Stage.join) 
 			throw new WWWordzException("There is not a puzzle yet.");
-		if(currentTime.after(report)) 
+		if(stage != Stage.play) 
 			throw new WWWordzException("There is not a puzzle anymore.");
-		
-		return puzzle;
 	}
 	
 	/**
@@ -206,16 +375,39 @@ extends java.lang.Object {
 	public void setPoints(java.lang.String nick,
             			  int points)
     throws WWWordzException {
-		Date currentTime = new Date();
+		reportingSlot(nick).setPoints(points);
+	}
+	
+	/**
+	 * Submit the words found by user in this round, setting its points to their score. 
+	 * Words are scored against the solutions of the puzzle, each word once, 
+	 * hence points don't depend on values reported by clients.
+	 * @param nick - of user that found the words
+	 * @param words - found by user
+	 * @return points of user in this round
+	 * @throws WWWordzException - if not in report stage
+	 */
+	public int submit(java.lang.String nick,
+					  Iterable<java.lang.String> words)
+	throws WWWordzException {
+		Slot slot = reportingSlot(nick);
+		int points = scorer.score(words);
+		slot.setPoints(points);
+		return points;
+	}
+	
+	/**
+	 * Slot of a player reporting points
+	 */
+	private Slot reportingSlot(java.lang.String nick) throws WWWordzException {
+		Slot slot = roundPlayers.get(nick);
 		
-		if(roundPlayers.containsKey(nick)==false)
+		if(slot==null)
 			throw new WWWordzException("This is not a valid player.");	
-		if(currentTime.before(report))
-			throw new WWWordzException("Can't add points in this stage");
-		if(currentTime.after(ranking))
+		if(currentStage() != Stage.report)
 			throw new WWWordzException("Can't add points in this stage");
-			
-		roundPlayers.get(nick).setPoints(points);
+		
+		return slot;
 	}
 	
 	/**
@@ -225,34 +417,68 @@ extends java.lang.Object {
 	 */
 	public List<Rank> getRanking()
     throws WWWordzException {
-		Date currentTime = new Date();		
-		
-		if (currentTime.before(ranking)) 
+		if (currentStage() != Stage.ranking) 
 			throw new WWWordzException("Can't get Ranking in this stage.");
 		
 		if(roundPlayers.size()==0) 
 			throw new WWWordzException("There are no players to rank.");
 		
-		if(rankingGeral==null) {
-			rankingGeral = constructRanking();
+		return standings().getRanking();
+	}
+	
+	/**
+	 * Snapshot of the leaderboard, taken when first requested in the ranking stage, 
+	 * once players can no longer set their points
+	 */
+	private Leaderboard.Snapshot standings() {
+		Leaderboard.Snapshot snapshot = standings;
+		if(snapshot == null) {
+			synchronized(leaderboard) {
+				if(standings == null)
+					standings = leaderboard.snapshot();
+				snapshot = standings;
+			}
 		}
+		return snapshot;
+	}
+	
+	/**
+	 * Position of a player in the ranking of this round, counting from 0
+	 * @param nick - of player
+	 * @return position
+	 * @throws WWWordzException - if not in ranking stage or player is not in this round
+	 */
+	public int getPosition(java.lang.String nick)
+	throws WWWordzException {
+		if (currentStage() != Stage.ranking) 
+			throw new WWWordzException("Can't get Ranking in this stage.");
+		
+		int position = standings().getPosition(nick);
+		if(position < 0)
+			throw new WWWordzException("This is not a valid player.");
+		return position;
+	}
+	
+	/**
+	 * First players in the ranking of this round
+	 * @param count - maximum number of players
+	 * @return list of ranks
+	 * @throws WWWordzException - if not in ranking stage
+	 */
+	public List<Rank> getTop(int count)
+	throws WWWordzException {
+		if (currentStage() != Stage.ranking) 
+			throw new WWWordzException("Can't get Ranking in this stage.");
 		
-		return rankingGeral;
+		return standings().getTop(count);
 	}
 	
+	/**
+	 * Current list of players in this round sorted by points, read from its leaderboard
+	 * @return list of ranks
+	 */
 	public List<Rank> constructRanking() {
-		List<Rank> ranking = new ArrayList<Rank>();
-		List<Player> playersList = new ArrayList<>(roundPlayers.values());
-		Collections.sort(playersList, new Comparator<Player>() {
-	        public int compare(Player one, Player two) {
-	            return two.getPoints() - one.getPoints();
-	        }
-	    });
-		for(Player currentPlayer : playersList) {
-			Rank aux = new Rank(currentPlayer.getNick(), currentPlayer.getPoints(), currentPlayer.getAccumulated());
-			ranking.add(aux);
-		}
-		return ranking;
+		return leaderboard.getRanking();
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package wwwordz.game;
+
+import java.util.BitSet;
+
+import wwwordz.shared.Puzzle;
+
+/**
+ * <b>Scores the words found by players in a puzzle. 
+ * Words are looked up by their ordinal in the solution index of the puzzle and their points are computed once, 
+ * when the scorer is created, hence scoring a word is a single lookup in a hash map and does not allocate. 
+ * Words repeated in a submission are only scored once and words that are not solutions score nothing. 
+ * A scorer is immutable and can be shared by many threads.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class Scorer
+extends java.lang.Object {
+	
+	private final Puzzle.SolutionIndex index;
+	private final int[] points;
+	
+	/**
+	 * Create a scorer for the solutions of a puzzle
+	 * @param puzzle - to score
+	 */
+	public Scorer(Puzzle puzzle) {
+		this.index = puzzle.getSolutionIndex();
+		this.points = new int[index.size()];
+		for(int ordinal=0; ordinal<points.length; ordinal++)
+			points[ordinal] = index.getSolution(ordinal).getPoints();
+	}
+	
+	/**
+	 * Number of different words that score
+	 * @return number of words
+	 */
+	public int size() {
+		return points.length;
+	}
+	
+	/**
+	 * Points of a single word
+	 * @param word - to score
+	 * @return points of word if it is a solution; 0 otherwise
+	 */
+	public int score(java.lang.String word) {
+		int ordinal = index.getOrdinal(word);
+		return ordinal < 0 ? 0 : points[ordinal];
+	}
+	
+	/**
+	 * Points of the words submitted by a player, scoring each word once
+	 * @param words - found by player
+	 * @return total points
+	 */
+	public int score(Iterable<java.lang.String> words) {
+		BitSet scored = new BitSet(points.length);
+		int total = 0;
+		for(String word : words) {
+			int ordinal = index.getOrdinal(word);
+			if(ordinal < 0 || scored.get(ordinal)) continue;
+			scored.set(ordinal);
+			total += points[ordinal];
+		}
+		return total;
+	}
+}
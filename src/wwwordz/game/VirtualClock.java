@@ -0,0 +1,45 @@
+package wwwordz.game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>A clock that only moves when it is advanced, used to simulate rounds without waiting for their stages. 
+ * It can be shared and advanced by many threads.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class VirtualClock
+extends java.lang.Object
+implements Clock {
+	
+	private final AtomicLong time = new AtomicLong();
+	
+	/**
+	 * Create a virtual clock starting at time 0
+	 */
+	public VirtualClock() {}
+	
+	@Override
+	public long nanoTime() {
+		return time.get();
+	}
+	
+	/**
+	 * Advance this clock
+	 * @param duration - to advance, in milliseconds
+	 * @return new time in nanoseconds
+	 */
+	public long advance(long duration) {
+		return advance(duration, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Advance this clock
+	 * @param duration - to advance
+	 * @param unit - of duration
+	 * @return new time in nanoseconds
+	 */
+	public long advance(long duration, TimeUnit unit) {
+		return time.addAndGet(unit.toNanos(duration));
+	}
+}
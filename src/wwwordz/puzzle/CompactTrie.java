@@ -0,0 +1,316 @@
+package wwwordz.puzzle;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <b>A read-only trie over the folded A-Z alphabet, stored in two flat int arrays.
+ * Nodes are laid out breadth first and the children of each node are contiguous and sorted by letter.
+ * For each node, a mask holds one bit per child letter (and the word flag in the sign bit)
+ * and the first child index locates the children, hence the index of a child
+ * is the first child index plus the number of smaller letters in the mask.
+ * Searches over this structure are plain int cursors, with no boxing nor hashing. 
+ * Both arrays are int buffers, either wrapping heap arrays or mapped from a dictionary image.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class CompactTrie
+extends java.lang.Object {
+
+	/**
+	 * Cursor of the root node
+	 */
+	public static final int ROOT = 0;
+	/**
+	 * Cursor returned when there is no such child
+	 */
+	public static final int NONE = -1;
+
+	static final int ALPHABET_SIZE = 26;
+	static final int LETTERS = (1 << ALPHABET_SIZE) - 1;
+	static final int WORD = 1 << 31;
+
+	final IntBuffer masks;
+	final IntBuffer firstChild;
+
+	CompactTrie(IntBuffer masks, IntBuffer firstChild) {
+		this.masks = masks;
+		this.firstChild = firstChild;
+	}
+
+	/**
+	 * Check if a word can be stored in a compact trie, i.e. if it only has letters from A to Z
+	 * @param word - to check
+	 * @return true if word only has capital letters without diacritics; false otherwise
+	 */
+	public static boolean isCompactable(java.lang.String word) {
+		for(int i=0; i<word.length(); i++) {
+			char letter = word.charAt(i);
+			if(letter < 'A' || letter > 'Z') return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Build a compact trie with the same words of the given node structure
+	 * @param root - of the node structure
+	 * @return compact trie
+	 * @throws IllegalArgumentException - if some word has letters other than A to Z
+	 */
+	public static CompactTrie build(Trie.Node root) {
+		int size = countNodes(root);
+		int[] masks = new int[size];
+		int[] firstChild = new int[size];
+		List<Trie.Node> order = new ArrayList<>(size);
+
+		order.add(root);
+		for(int index=0; index<order.size(); index++) {
+			Trie.Node node = order.get(index);
+			int mask = node.getCompletedWord() ? WORD : 0;
+			firstChild[index] = order.size();
+			for(int bit=0; bit<ALPHABET_SIZE; bit++) {
+				Trie.Node child = node.getChildrens().get((char) ('A' + bit));
+				if(child != null) {
+					mask |= 1 << bit;
+					order.add(child);
+				}
+			}
+			if(Integer.bitCount(mask & LETTERS) != node.getChildrens().size())
+				throw new IllegalArgumentException("Only words with letters from A to Z can be compacted");
+			masks[index] = mask;
+		}
+		return new CompactTrie(IntBuffer.wrap(masks), IntBuffer.wrap(firstChild));
+	}
+
+	/**
+	 * Build a compact trie straight from sorted words, without creating a node structure.
+	 * Each node is a range of words sharing a prefix, and ranges are visited breadth first.
+	 * @param words - sorted, without repetitions and only with letters from A to Z
+	 * @return compact trie
+	 */
+	public static CompactTrie build(java.lang.String[] words) {
+		int capacity = 1024;
+		int[] masks = new int[capacity];
+		int[] firstChild = new int[capacity];
+		int[] low = new int[capacity];
+		int[] high = new int[capacity];
+		int[] depth = new int[capacity];
+		int size = 1;
+
+		high[0] = words.length;
+		for(int index=0; index<size; index++) {
+			int from = low[index];
+			int to = high[index];
+			int level = depth[index];
+			int mask = 0;
+
+			if(from < to && words[from].length() == level) {
+				mask = WORD;
+				from++;
+			}
+			firstChild[index] = size;
+			while(from < to) {
+				char letter = words[from].charAt(level);
+				int end = from + 1;
+				while(end < to && words[end].charAt(level) == letter)
+					end++;
+				if(size == capacity) {
+					capacity *= 2;
+					masks = Arrays.copyOf(masks, capacity);
+					firstChild = Arrays.copyOf(firstChild, capacity);
+					low = Arrays.copyOf(low, capacity);
+					high = Arrays.copyOf(high, capacity);
+					depth = Arrays.copyOf(depth, capacity);
+				}
+				mask |= 1 << (letter - 'A');
+				low[size] = from;
+				high[size] = end;
+				depth[size] = level + 1;
+				size++;
+				from = end;
+			}
+			masks[index] = mask;
+		}
+		return new CompactTrie(IntBuffer.wrap(Arrays.copyOf(masks, size)), 
+				IntBuffer.wrap(Arrays.copyOf(firstChild, size)));
+	}
+
+	private static int countNodes(Trie.Node node) {
+		int count = 1;
+		for(Trie.Node child : node.getChildrens().values())
+			count += countNodes(child);
+		return count;
+	}
+
+	/**
+	 * Number of nodes in this trie, including the root
+	 * @return number of nodes
+	 */
+	public int size() {
+		return masks.limit();
+	}
+
+	/**
+	 * Cursor of the child of given node for given letter
+	 * @param node - cursor of parent node
+	 * @param letter - to continue with
+	 * @return cursor of child or NONE if there is no such child
+	 */
+	public int child(int node, char letter) {
+		int bit = letter - 'A';
+		if(bit < 0 || bit >= ALPHABET_SIZE) return NONE;
+		int mask = masks.get(node);
+		if((mask & (1 << bit)) == 0) return NONE;
+		return firstChild.get(node) + Integer.bitCount(mask & ((1 << bit) - 1));
+	}
+
+	/**
+	 * Check if the prefix leading to given node is a complete word
+	 * @param node - cursor
+	 * @return true if node is a complete word; false otherwise
+	 */
+	public boolean isWord(int node) {
+		return masks.get(node) < 0;
+	}
+
+	/**
+	 * Check if given node has no descendants
+	 * @param node - cursor
+	 * @return true if node is a leaf; false otherwise
+	 */
+	public boolean isLeaf(int node) {
+		return (masks.get(node) & LETTERS) == 0;
+	}
+
+	/**
+	 * Collect the words in leaves below given node
+	 * @param node - cursor
+	 * @param prefix - of node
+	 * @param leaves - list where words are added
+	 */
+	void collectLeaves(int node, StringBuilder prefix, List<java.lang.String> leaves) {
+		int letters = childLetters(node);
+		if(letters == 0) {
+			if(isWord(node) && prefix.length() > 0) leaves.add(prefix.toString());
+			return;
+		}
+		for(int child = firstChild(node); letters != 0; child++, letters &= letters - 1) {
+			prefix.append((char) ('A' + Integer.numberOfTrailingZeros(letters)));
+			collectLeaves(child, prefix, leaves);
+			prefix.setLength(prefix.length() - 1);
+		}
+	}
+
+	/**
+	 * Rebuild the node structure holding the same words of this trie
+	 * @return root node
+	 */
+	public Trie.Node toNodes() {
+		return toNodes(ROOT);
+	}
+
+	private Trie.Node toNodes(int index) {
+		Trie.Node node = new Trie.Node();
+		if(isWord(index)) node.setCompletedWordTrue();
+		int letters = masks.get(index) & LETTERS;
+		for(int child = firstChild.get(index); letters != 0; child++, letters &= letters - 1) {
+			char letter = (char) ('A' + Integer.numberOfTrailingZeros(letters));
+			node.getChildrens().put(letter, toNodes(child));
+		}
+		return node;
+	}
+
+	/**
+	 * Letter of each child of given node, in the order of their cursors
+	 * @param node - cursor of parent node
+	 * @return mask with a bit per child letter, bit 0 for A
+	 */
+	int childLetters(int node) {
+		return masks.get(node) & LETTERS;
+	}
+
+	/**
+	 * Cursor of the first child of given node. Remaining children follow in sequence.
+	 * @param node - cursor of parent node
+	 * @return cursor of first child
+	 */
+	int firstChild(int node) {
+		return firstChild.get(node);
+	}
+
+	/**
+	 * Iterator over the words of this trie with given prefix, starting in the node of that prefix
+	 * @param start - cursor of prefix
+	 * @param prefix - of all words
+	 * @return iterator
+	 */
+	Iterator<java.lang.String> iterator(int start, java.lang.String prefix) {
+		return new CursorIterator(start, prefix);
+	}
+
+	/**
+	 * <b>Iterator over the words of this trie. It traverses the trie depth first with an explicit stack,
+	 * holding for each level the cursor of the next child and the letters of the children not yet visited.</b><br>
+	 */
+	private class CursorIterator
+	extends java.lang.Object
+	implements Iterator<java.lang.String> {
+
+		private int[] cursors = new int[32];
+		private int[] pending = new int[32];
+		private char[] word = new char[32];
+		private final int base;
+		private int depth;
+		private java.lang.String nextWord;
+
+		CursorIterator(int start, java.lang.String prefix) {
+			base = prefix.length();
+			if(base + cursors.length > word.length) word = new char[base + cursors.length];
+			prefix.getChars(0, base, word, 0);
+			if(base > 0 && isWord(start)) nextWord = prefix;
+			cursors[0] = firstChild(start);
+			pending[0] = childLetters(start);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(nextWord == null) advance();
+			return nextWord != null;
+		}
+
+		@Override
+		public java.lang.String next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			java.lang.String found = nextWord;
+			nextWord = null;
+			return found;
+		}
+
+		private void advance() {
+			while(depth >= 0) {
+				int letters = pending[depth];
+				if(letters == 0) {
+					depth--;
+					continue;
+				}
+				int child = cursors[depth]++;
+				pending[depth] = letters & (letters - 1);
+				word[base + depth] = (char) ('A' + Integer.numberOfTrailingZeros(letters));
+				if(++depth == cursors.length) {
+					cursors = Arrays.copyOf(cursors, 2 * depth);
+					pending = Arrays.copyOf(pending, 2 * depth);
+					word = Arrays.copyOf(word, base + 2 * depth);
+				}
+				cursors[depth] = firstChild(child);
+				pending[depth] = childLetters(child);
+				if(isWord(child)) {
+					nextWord = new java.lang.String(word, 0, base + depth);
+					return;
+				}
+			}
+		}
+	}
+}
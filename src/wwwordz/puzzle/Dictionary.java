@@ -1,30 +1,43 @@
 package wwwordz.puzzle;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.text.Normalizer;
-import java.text.Normalizer.Form;
-import java.util.Locale;
 
 /**
  * <b>An organized collection of words, optimized for searching them. 
  * This class is a singleton, meaning that there is, at most, a single instance of this class per application.
  * This dictionary uses a collection of Portuguese words loaded as a resource from a file in this package. 
- * It is backed by a Trie to index words and speedup searches.</b><br>
+ * It is backed by a Trie to index words and speedup searches. 
+ * Words are loaded in parallel straight into a trie compacted into flat arrays. 
+ * Large words (those in leaves of the trie) are indexed to be drawn in constant time. 
+ * The compacted trie is saved as a dictionary image and later runs map that image instead of parsing the file, 
+ * unless the file has changed since the image was built. 
+ * The image is a cache kept outside the source tree, in the file given by the system property 
+ * wwwordz.dictionary.image or else in the wwwordz folder of the temporary directory. 
+ * If the image can't be read or written the dictionary is loaded from the file, 
+ * and the failure is available from getImageException().</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Dictionary
 extends java.lang.Object {
 	
 	Trie trie;
-	private static final String DIC_FILE = "src/wwwordz/puzzle/pt-PT-AO.dic";
+	LargeWordIndex largeWords;
+	DictionaryLoader.Statistics statistics;
+	long version;
+	static final String DIC_FILE = "src/wwwordz/puzzle/pt-PT-AO.dic";
+	/**
+	 * System property with the file of the dictionary image
+	 */
+	public static final String IMAGE_PROPERTY = "wwwordz.dictionary.image";
+	static final String IMAGE_NAME = "pt-PT-AO.img";
+	private IOException imageException = null;
 	private static Dictionary instance = null;
 	
 	public Dictionary() {
 		try {
-			this.trie = createDictionaryWithTrie();
+			this.trie = loadDictionaryWithTrie();
+			this.largeWords = this.trie.getLargeWordIndex();
 		}
 		catch (Exception e) {
 			e.printStackTrace();
@@ -36,7 +49,7 @@ extends java.lang.Object {
 	 * Obtain the sole instance of this class. Multiple invocations will receive the exact same instace.
 	 * @return singleton
 	 */
-	public static Dictionary getInstance() {
+	public static synchronized Dictionary getInstance() {
 		if(instance==null) instance = new Dictionary();
 		return instance;
 	}
@@ -58,34 +71,98 @@ extends java.lang.Object {
 	}
 	
 	/**
-	 * Create a trie for the dictionary given
+	 * Index of large words, created when the dictionary is loaded
+	 * @return index of large words
+	 */
+	public LargeWordIndex getLargeWordIndex() {
+		return this.largeWords;
+	}
+	
+	/**
+	 * Parallel stream of all words in this dictionary, for dictionary-wide scans
+	 * @return stream of words
+	 */
+	public java.util.stream.Stream<java.lang.String> stream() {
+		return this.trie.parallelStream();
+	}
+	
+	/**
+	 * Version of this dictionary, the checksum of the dictionary file it was loaded from. 
+	 * Puzzles generated from the same seed with dictionaries of the same version are equal.
+	 * @return version
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+	
+	/**
+	 * Statistics of the dictionary file load when this instance was created
+	 * @return statistics or null if the trie was mapped from the dictionary image
+	 */
+	public DictionaryLoader.Statistics getLoadStatistics() {
+		return this.statistics;
+	}
+	
+	/**
+	 * File of the dictionary image, given by a system property or else in the temporary directory
+	 * @return image file
+	 */
+	public static java.io.File getImageFile() {
+		String property = System.getProperty(IMAGE_PROPERTY);
+		if(property != null) return new File(property);
+		return new File(new File(System.getProperty("java.io.tmpdir"), "wwwordz"), IMAGE_NAME);
+	}
+	
+	/**
+	 * Failure to read or write the dictionary image when this instance was created. 
+	 * The dictionary is still loaded from the file, hence these failures only cost load time.
+	 * @return exception or null if the image was read or written
+	 */
+	public IOException getImageException() {
+		return this.imageException;
+	}
+	
+	/**
+	 * Load the trie from the dictionary image, if it is up to date. 
+	 * Otherwise, load the trie from the dictionary file and write a new image.
+	 * @return trie
+	 * @throws IOException - if the dictionary file can't be read
+	 */
+	private Trie loadDictionaryWithTrie() throws IOException {
+		File source = new File(DIC_FILE);
+		File image = getImageFile();
+		
+		try {
+			CompactTrie compact = DictionaryImage.read(source, image);
+			if(compact != null) {
+				this.version = DictionaryImage.sourceChecksum(image);
+				return new Trie(compact);
+			}
+		}
+		catch (IOException e) {
+			this.imageException = e;
+		}
+		
+		DictionaryLoader loader = new DictionaryLoader();
+		Trie trie = new Trie(loader.load(source));
+		this.statistics = loader.getStatistics();
+		this.version = DictionaryImage.checksum(source);
+		try {
+			image.getAbsoluteFile().getParentFile().mkdirs();
+			DictionaryImage.write(trie.compact, source, this.version, image);
+		}
+		catch (IOException e) {
+			this.imageException = e;
+		}
+		return trie;
+	}
+	
+	/**
+	 * Create a trie for the dictionary given, loading it in parallel
 	 * @return trie
 	 * @throws IOException
 	 */
 	public static Trie createDictionaryWithTrie() throws IOException {
-		
-		Trie trie = new Trie();		
-		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(DIC_FILE),"UTF-8"));
-
-		String line;
-		int firstLine=0;
-		while((line = reader.readLine()) != null) {
-			if(firstLine==0) {
-				firstLine++;
-				continue;
-			 }
-			 String aux = "";
-			 for(int i=0; i<line.length(); i++) {
-				 if(!Character.isLetter(line.charAt(i))) {
-					 break;
-				 }
-				 aux += line.charAt(i);
-			 }
-			 aux = Normalizer.normalize(aux.toUpperCase(Locale.ENGLISH),Form.NFD).
-	          replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-			 if(aux.length()>=3) trie.put(aux);			  
-		  }
-		  reader.close();
-		  return trie;						
+		return new Trie(new DictionaryLoader().load(new File(DIC_FILE)));
 	}
-}
\ No newline at end of file
+}
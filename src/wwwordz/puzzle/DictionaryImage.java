@@ -0,0 +1,150 @@
+package wwwordz.puzzle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * <b>A precompiled dictionary image: a binary file holding a compact trie,
+ * ready to be memory mapped without parsing the dictionary source.
+ * The header records the image version and the length, modification time and checksum of the source.
+ * An image is considered stale if its version differs or if the checksum of the source changed.</b><br>
+ * Layout (little endian): magic, version, node count, source length, source modification time,
+ * source checksum, followed by the masks and the first child indexes of the compact trie.<br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class DictionaryImage
+extends java.lang.Object {
+
+	/**
+	 * Version of the image layout. Images with other versions are rebuilt.
+	 */
+	public static final int VERSION = 1;
+	static final int MAGIC = 0x5A575757;
+	static final int HEADER_SIZE = 40;
+
+	private DictionaryImage() {}
+
+	/**
+	 * Checksum (CRC32) of the content of a dictionary source file
+	 * @param source - dictionary file
+	 * @return checksum
+	 * @throws IOException - if the file can't be read
+	 */
+	public static long checksum(java.io.File source) throws IOException {
+		CRC32 crc = new CRC32();
+		try(FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+			crc.update(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Write an image of a compact trie for the given source.
+	 * The image is written to a temporary file and then moved into place,
+	 * hence readers never see a partially written image.
+	 * @param trie - to write
+	 * @param source - dictionary file from which the trie was built
+	 * @param checksum - of source
+	 * @param image - file to write
+	 * @throws IOException - if the image can't be written
+	 */
+	public static void write(CompactTrie trie,
+							 java.io.File source,
+							 long checksum,
+							 java.io.File image)
+	throws IOException {
+		int nodes = trie.size();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * nodes).order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(0);
+		buffer.putLong(source.length()).putLong(source.lastModified()).putLong(checksum);
+		for(int node=0; node<nodes; node++)
+			buffer.putInt(trie.masks.get(node));
+		for(int node=0; node<nodes; node++)
+			buffer.putInt(trie.firstChild.get(node));
+		buffer.flip();
+
+		File directory = image.getAbsoluteFile().getParentFile();
+		File temporary = File.createTempFile(image.getName(), ".tmp", directory);
+		try(FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.WRITE)) {
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		Files.move(temporary.toPath(), image.toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Map an image of a compact trie. The trie is served straight from the mapped buffer.
+	 * If length and modification time of the source match those in the header
+	 * the source is not read; otherwise its checksum is compared with the one in the header.
+	 * @param source - dictionary file from which the image was built
+	 * @param image - file to map
+	 * @return compact trie or null if the image is missing, has another version or is stale
+	 * @throws IOException - if the image can't be read
+	 */
+	public static CompactTrie read(java.io.File source,
+								   java.io.File image)
+	throws IOException {
+		if(!image.canRead() || image.length() < HEADER_SIZE) return null;
+
+		MappedByteBuffer buffer;
+		try(FileChannel channel = FileChannel.open(image.toPath(), StandardOpenOption.READ)) {
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) return null;
+		int nodes = buffer.getInt(8);
+		if(buffer.capacity() != HEADER_SIZE + 8L * nodes) return null;
+		if(buffer.getLong(16) != source.length() || buffer.getLong(24) != source.lastModified()) {
+			if(buffer.getLong(32) != checksum(source)) return null;
+		}
+
+		return new CompactTrie(
+				buffer.slice(HEADER_SIZE, 4 * nodes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer(),
+				buffer.slice(HEADER_SIZE + 4 * nodes, 4 * nodes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+	}
+
+	/**
+	 * Checksum of the source recorded in the header of an image
+	 * @param image - file to read
+	 * @return checksum of the source from which the image was built
+	 * @throws IOException - if the image can't be read or is not an image of this version
+	 */
+	public static long sourceChecksum(java.io.File image) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		try(FileChannel channel = FileChannel.open(image.toPath(), StandardOpenOption.READ)) {
+			while(buffer.hasRemaining() && channel.read(buffer) >= 0);
+		}
+		if(buffer.hasRemaining() || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+			throw new IOException("Not a dictionary image: "+image);
+		return buffer.getLong(32);
+	}
+
+	/**
+	 * Build step: compile the default dictionary into its image file.
+	 * @param args - optional image file, instead of the one used by the dictionary
+	 * @throws IOException - if the dictionary can't be read or the image can't be written
+	 */
+	public static void main(java.lang.String[] args) throws IOException {
+		File source = new File(Dictionary.DIC_FILE);
+		File image = args.length > 0 ? new File(args[0]) : Dictionary.getImageFile();
+		image.getAbsoluteFile().getParentFile().mkdirs();
+		DictionaryLoader loader = new DictionaryLoader();
+		CompactTrie trie = loader.load(source);
+
+		write(trie, source, checksum(source), image);
+		System.out.println("Loaded "+loader.getStatistics());
+		System.out.println("Wrote "+trie.size()+" nodes to "+image);
+	}
+}
@@ -0,0 +1,302 @@
+package wwwordz.puzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b>Loads the words of a dictionary file in parallel.
+ * The file is split in chunks at line boundaries and each chunk is parsed in a fork/join pool.
+ * Each line contributes the letters before its first non letter, in capitals and without diacritics.
+ * Letters are folded with a precomputed table and only words with letters outside that table
+ * are normalized with a Normalizer. Each chunk produces a sorted batch of words and batches are merged
+ * as tasks are joined, resulting in the sorted words from which a compact trie is built. 
+ * Words with letters that don't fold into A to Z can't be stored in a compact trie and are skipped; 
+ * the number of skipped words is reported in the statistics of the load.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class DictionaryLoader
+extends java.lang.Object {
+
+	/**
+	 * Minimum length of words loaded from the dictionary
+	 */
+	public static final int MINIMUM_WORD_LENGTH = 3;
+	static final int CHUNK_SIZE = 64 * 1024;
+	static final char NOT_LETTER = '\0';
+	static final char UNFOLDABLE = '\uFFFF';
+	static final char[] FOLD = createFoldTable(0x250);
+
+	private final ForkJoinPool pool;
+	private Statistics statistics;
+
+	/**
+	 * Create a loader using the common fork/join pool
+	 */
+	public DictionaryLoader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a loader using the given pool
+	 * @param pool - to parse chunks
+	 */
+	public DictionaryLoader(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Statistics of the last load
+	 * @return statistics or null if nothing was loaded yet
+	 */
+	public Statistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Load the words of a dictionary file into a compact trie. The first line of the file (word count) is skipped.
+	 * @param file - dictionary in UTF-8
+	 * @return compact trie
+	 * @throws IOException - if file can't be read
+	 */
+	public CompactTrie load(java.io.File file) throws IOException {
+		long start = System.nanoTime();
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		int first = nextLine(bytes, 0, bytes.length);
+		LongAdder skipped = new LongAdder();
+		String[] words = pool.invoke(new ParseTask(bytes, first, bytes.length, skipped));
+		CompactTrie trie = CompactTrie.build(words);
+
+		this.statistics = new Statistics(words.length, skipped.intValue(), System.nanoTime() - start, pool.getParallelism());
+		return trie;
+	}
+
+	/**
+	 * Create a table folding each char into a capital letter without diacritics,
+	 * or NOT_LETTER if it is not a letter, or UNFOLDABLE if it doesn't fold into a single letter from A to Z
+	 * @param size - of table
+	 * @return fold table
+	 */
+	static char[] createFoldTable(int size) {
+		char[] table = new char[size];
+		for(char letter=0; letter<size; letter++) {
+			if(!Character.isLetter(letter)) {
+				table[letter] = NOT_LETTER;
+				continue;
+			}
+			String folded = fold(String.valueOf(letter));
+			if(folded.length() == 1 && CompactTrie.isCompactable(folded))
+				table[letter] = folded.charAt(0);
+			else
+				table[letter] = UNFOLDABLE;
+		}
+		return table;
+	}
+
+	/**
+	 * Convert to capitals and remove diacritics using a Normalizer
+	 * @param word - to fold
+	 * @return folded word
+	 */
+	static String fold(String word) {
+		return Normalizer.normalize(word.toUpperCase(Locale.ENGLISH),Form.NFD).
+				replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+	}
+
+	/**
+	 * Position after the next line break
+	 */
+	private static int nextLine(byte[] bytes, int position, int end) {
+		while(position < end && bytes[position] != '\n')
+			position++;
+		return Math.min(position + 1, end);
+	}
+
+	/**
+	 * Parse the lines in a chunk of bytes into a sorted array of words, without repetitions
+	 * @param bytes - of the dictionary
+	 * @param from - start of the chunk, at the beginning of a line
+	 * @param to - end of the chunk, after a line break
+	 * @return sorted words
+	 */
+	static String[] parse(byte[] bytes, int from, int to) {
+		return parse(bytes, from, to, new LongAdder());
+	}
+
+	/**
+	 * Parse the lines in a chunk of bytes into a sorted array of words, without repetitions, 
+	 * counting the words skipped for having letters outside A to Z
+	 * @param bytes - of the dictionary
+	 * @param from - start of the chunk, at the beginning of a line
+	 * @param to - end of the chunk, after a line break
+	 * @param skipped - counter of skipped words
+	 * @return sorted words
+	 */
+	static String[] parse(byte[] bytes, int from, int to, LongAdder skipped) {
+		CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes, from, to - from));
+		char[] buffer = chars.array();
+		int end = chars.limit();
+		char[] word = new char[64];
+		List<String> words = new ArrayList<>();
+
+		for(int position=0; position<end; ) {
+			int length = 0;
+			boolean unfoldable = false;
+			int start = position;
+			for(; position<end; position++) {
+				char letter = buffer[position];
+				char folded = letter < FOLD.length ? FOLD[letter] :
+					(Character.isLetter(letter) ? UNFOLDABLE : NOT_LETTER);
+				if(folded == NOT_LETTER) break;
+				if(length == word.length) word = Arrays.copyOf(word, 2 * length);
+				word[length++] = folded;
+				unfoldable |= folded == UNFOLDABLE;
+			}
+			String found = null;
+			if(unfoldable)
+				found = fold(new String(buffer, start, length));
+			else if(length >= MINIMUM_WORD_LENGTH)
+				found = new String(word, 0, length);
+			if(found != null && found.length() >= MINIMUM_WORD_LENGTH) {
+				if(CompactTrie.isCompactable(found))
+					words.add(found);
+				else
+					skipped.increment();
+			}
+			while(position < end && buffer[position++] != '\n');
+		}
+		String[] sorted = words.toArray(new String[words.size()]);
+		Arrays.sort(sorted);
+		return merge(sorted, new String[0]); // discards repetitions
+	}
+
+	/**
+	 * Merge two sorted arrays of words, discarding repetitions
+	 * @param one - sorted words
+	 * @param other - sorted words
+	 * @return sorted words, without repetitions
+	 */
+	static String[] merge(String[] one, String[] other) {
+		String[] merged = new String[one.length + other.length];
+		int size = 0;
+		int i = 0, j = 0;
+		while(i < one.length || j < other.length) {
+			String next;
+			if(j == other.length || (i < one.length && one[i].compareTo(other[j]) <= 0))
+				next = one[i++];
+			else
+				next = other[j++];
+			if(size == 0 || !merged[size-1].equals(next))
+				merged[size++] = next;
+		}
+		return size == merged.length ? merged : Arrays.copyOf(merged, size);
+	}
+
+	/**
+	 * <b>Parses a range of lines, splitting it in two halves at a line break while it is too large.</b><br>
+	 */
+	static class ParseTask
+	extends RecursiveTask<String[]> {
+
+		private static final long serialVersionUID = 1L;
+		private final byte[] bytes;
+		private final int from;
+		private final int to;
+		private final LongAdder skipped;
+
+		ParseTask(byte[] bytes, int from, int to, LongAdder skipped) {
+			this.bytes = bytes;
+			this.from = from;
+			this.to = to;
+			this.skipped = skipped;
+		}
+
+		@Override
+		protected String[] compute() {
+			if(to - from <= CHUNK_SIZE)
+				return parse(bytes, from, to, skipped);
+			int middle = nextLine(bytes, (from + to) / 2, to);
+			ParseTask second = new ParseTask(bytes, middle, to, skipped);
+			second.fork();
+			String[] first = new ParseTask(bytes, from, middle, skipped).compute();
+			return merge(first, second.join());
+		}
+	}
+
+	/**
+	 * <b>Statistics of a dictionary load.</b><br>
+	 */
+	public static class Statistics
+	extends java.lang.Object {
+
+		private final int words;
+		private final int skipped;
+		private final long nanos;
+		private final int parallelism;
+
+		Statistics(int words, int skipped, long nanos, int parallelism) {
+			this.words = words;
+			this.skipped = skipped;
+			this.nanos = nanos;
+			this.parallelism = parallelism;
+		}
+
+		/**
+		 * Number of words loaded
+		 * @return words
+		 */
+		public int getWords() {
+			return this.words;
+		}
+
+		/**
+		 * Number of words skipped for having letters that don't fold into A to Z. 
+		 * Words repeated in the file are counted each time.
+		 * @return skipped words
+		 */
+		public int getSkipped() {
+			return this.skipped;
+		}
+
+		/**
+		 * Time taken to load, in nanoseconds
+		 * @return load time
+		 */
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		/**
+		 * Parallelism of the pool used to load
+		 * @return number of threads
+		 */
+		public int getParallelism() {
+			return this.parallelism;
+		}
+
+		/**
+		 * Load throughput
+		 * @return words per second
+		 */
+		public double getWordsPerSecond() {
+			return this.nanos == 0 ? 0 : this.words * 1e9 / this.nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d words (%d skipped) in %.1f ms (%.0f words/s, %d threads)",
+					words, skipped, nanos / 1e6, getWordsPerSecond(), parallelism);
+		}
+	}
+}
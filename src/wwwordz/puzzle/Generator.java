@@ -1,161 +1,337 @@
 package wwwordz.puzzle;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import wwwordz.puzzle.Trie.Search;
 import wwwordz.shared.Puzzle;
 import wwwordz.shared.Table;
-import wwwordz.shared.Table.Cell;
 
 /**
- * <b>A puzzle generator. Creates a puzzle with many scrambled words contained in a dictionary.</b><br>
+ * <b>A puzzle generator. Creates a puzzle with many scrambled words contained in a dictionary. 
+ * Generation is driven by a seed, hence the same seed, table size and dictionary version always 
+ * produce the same puzzle. A generator may keep a cache of puzzles keyed by seed.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Generator
 extends java.lang.Object {
 	
+	/**
+	 * Default minimum number of cells of a table to solve its starting cells in parallel
+	 */
+	public static final int PARALLEL_THRESHOLD = 25;
+	
 	Dictionary dic = null;
+	final int size;
+	ForkJoinPool solverPool = null;
+	int parallelThreshold = PARALLEL_THRESHOLD;
+	int minimumWordLength = DictionaryLoader.MINIMUM_WORD_LENGTH;
+	LargeWordIndex.Weighting weighting = LargeWordIndex.Weighting.UNIFORM;
+	PuzzleCache cache = null;
+	SolutionCache solutionCache = null;
+	private final ThreadLocal<TableFiller> fillers;
+	
+	/**
+	 * Create a generator of tables with default size
+	 */
+	public Generator() {
+		this(Table.TABLE_SIZE);
+	}
+	
+	/**
+	 * Create a generator of tables with given size
+	 * @param size - number of rows and columns of generated tables
+	 * @throws IllegalArgumentException - if tables of given size can't be solved
+	 */
+	public Generator(int size) {
+		if(size < 1 || size > Solver.MAXIMUM_SIZE)
+			throw new IllegalArgumentException("Table size must be between 1 and "+Solver.MAXIMUM_SIZE);
+		this.size = size;
+		this.fillers = ThreadLocal.withInitial(() -> new TableFiller(size));
+	}
+	
+	/**
+	 * Size of the tables generated
+	 * @return number of rows and columns
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Pool where starting cells of large tables are solved in parallel
+	 * @return pool or null if tables are always solved sequentially
+	 */
+	public ForkJoinPool getSolverPool() {
+		return this.solverPool;
+	}
+	
+	/**
+	 * Change pool where starting cells of large tables are solved in parallel. 
+	 * A dedicated pool keeps solving from competing with other workers.
+	 * @param solverPool - pool or null to always solve sequentially
+	 */
+	public void setSolverPool(ForkJoinPool solverPool) {
+		this.solverPool = solverPool;
+	}
+	
+	/**
+	 * Minimum number of cells of a table to solve it in parallel
+	 * @return threshold in cells
+	 */
+	public int getParallelThreshold() {
+		return this.parallelThreshold;
+	}
+	
+	/**
+	 * Change minimum number of cells of a table to solve it in parallel. 
+	 * Smaller tables are solved sequentially.
+	 * @param parallelThreshold - in cells
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+	
+	/**
+	 * Minimum length of the large words placed in generated tables
+	 * @return minimum length
+	 */
+	public int getMinimumWordLength() {
+		return this.minimumWordLength;
+	}
+	
+	/**
+	 * Change minimum length of the large words placed in generated tables
+	 * @param minimumWordLength - of large words
+	 */
+	public void setMinimumWordLength(int minimumWordLength) {
+		this.minimumWordLength = minimumWordLength;
+		if(cache != null) cache.clear();
+	}
+	
+	/**
+	 * Weighting of the large words placed in generated tables, uniform by default
+	 * @return weighting
+	 */
+	public LargeWordIndex.Weighting getWeighting() {
+		return this.weighting;
+	}
+	
+	/**
+	 * Change weighting of the large words placed in generated tables
+	 * @param weighting - of large words
+	 */
+	public void setWeighting(LargeWordIndex.Weighting weighting) {
+		this.weighting = weighting;
+		if(cache != null) cache.clear();
+	}
+	
+	/**
+	 * Cache of puzzles generated by this generator
+	 * @return cache or null if puzzles are not cached
+	 */
+	public PuzzleCache getCache() {
+		return this.cache;
+	}
+	
+	/**
+	 * Change cache of puzzles generated by this generator. 
+	 * The cache is cleared when the large words placed in tables change.
+	 * @param cache - of puzzles or null to not cache puzzles
+	 */
+	public void setCache(PuzzleCache cache) {
+		this.cache = cache;
+	}
 	
-	public Generator() {}
+	/**
+	 * Cache of solutions of the tables solved by this generator
+	 * @return cache or null if solutions are not cached
+	 */
+	public SolutionCache getSolutionCache() {
+		return this.solutionCache;
+	}
+	
+	/**
+	 * Change cache of solutions of the tables solved by this generator. 
+	 * With a cache, solutions returned are shared and can't be modified.
+	 * @param solutionCache - of solutions or null to not cache solutions
+	 */
+	public void setSolutionCache(SolutionCache solutionCache) {
+		this.solutionCache = solutionCache;
+	}
 	
 	/**
-	 * Generate a high quality puzzle with many words in it
-	 * @return table
+	 * Generate a high quality puzzle with many words in it, from a fresh seed
+	 * @return puzzle
 	 */
 	public Puzzle generate() {
-		Puzzle puzzle = new Puzzle();
-		Table table = new Table();
-		List<Cell> emptyCells = table.getEmptyCells();
-		Random r = new Random();
+		return generate(ThreadLocalRandom.current().nextLong());
+	}
+	
+	/**
+	 * Generate a high quality puzzle with many words in it, from given seed. 
+	 * If the puzzle of this seed is cached it is returned instead.
+	 * @param seed - of all random choices
+	 * @return puzzle
+	 */
+	public Puzzle generate(long seed) {
+		Puzzle puzzle = cache == null ? null : cache.get(seed);
+		if(puzzle != null) return puzzle;
+		
+		Table table = fill(seed);
+		return puzzle(seed, table, getSolutions(table));
+	}
+	
+	/**
+	 * Generate a puzzle with the quality in given specification. Candidate tables are generated 
+	 * from fresh seeds and solved sequentially, abandoning those that clearly can't reach the specification, 
+	 * until a candidate satisfies it or the time budget is spent. Then the best candidate is returned. 
+	 * If no candidate was completely solved within the budget, one more candidate is solved completely.
+	 * @param spec - quality of the puzzle
+	 * @return puzzle
+	 */
+	public Puzzle generate(QualitySpec spec) {
+		long deadline = System.nanoTime() + spec.getBudget() * 1000000L;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Puzzle best = null;
+		double bestScore = -1;
+		
 		dic = Dictionary.getInstance();
-		while(emptyCells.size() != 0) {			
-			Cell firstCell = emptyCells.get(r.nextInt(emptyCells.size()));
-			String bigWord = dic.getRandomLargeWord();
-			putWordInTable(bigWord, firstCell, 0, table);
-			emptyCells = table.getEmptyCells();
-		}
+		do {
+			long seed = random.nextLong();
+			Table table = fill(seed);
+			List<Puzzle.Solution> solutions = new Solver(dic.trie.compact, table).solve(spec);
+			if(solutions == null) continue;
+			
+			double score = spec.score(solutions);
+			if(score > bestScore) {
+				best = puzzle(seed, table, solutions);
+				bestScore = score;
+				if(spec.isSatisfiedBy(solutions)) break;
+			}
+		} while(System.nanoTime() < deadline);
+		
+		return best == null ? generate() : best;
+	}
+	
+	/**
+	 * Fill a table with large words drawn from the dictionary, using the filler of the current thread
+	 * @param seed - of all random choices
+	 * @return full table
+	 */
+	private Table fill(long seed) {
+		dic = Dictionary.getInstance();
+		return fillers.get().fill(seed, dic.getLargeWordIndex(), minimumWordLength, weighting);
+	}
+	
+	/**
+	 * Create a puzzle generated from given seed and add it to the cache
+	 * @param seed - of puzzle
+	 * @param table - of puzzle
+	 * @param solutions - of table
+	 * @return puzzle
+	 */
+	private Puzzle puzzle(long seed, Table table, List<Puzzle.Solution> solutions) {
+		Puzzle puzzle = new Puzzle();
 		puzzle.setTable(table);
-		puzzle.setSolutions(getSolutions(table));
+		puzzle.setSolutions(solutions);
+		puzzle.setSeed(seed);
+		puzzle.setDictionaryVersion(dic.getVersion());
+		if(cache != null) cache.put(puzzle);
 		return puzzle;
 	}
 	
-	private void putWordInTable(String word, Cell cell, int positionInWord, Table table) {
-		cell.setLetter(word.charAt(positionInWord));	
-		if(word.length() > positionInWord+1) {
-			List<Cell> neighbors = table.getNeighbors(cell);
-			Collections.shuffle(neighbors);
-			for(Cell element: neighbors) {
-				if(element.isEmpty() ) {
-					putWordInTable(word, element, positionInWord+1, table);
-					break;
-				}		
-			}
-		}	
+	/**
+	 * Generate a puzzle with random letters, from a fresh seed
+	 * @return puzzle
+	 */
+	public Puzzle random() {
+		return random(ThreadLocalRandom.current().nextLong());
 	}
 	
-	public Puzzle random() {
+	/**
+	 * Generate a puzzle with random letters, from given seed. Random puzzles are not cached.
+	 * @param seed - of letters
+	 * @return puzzle
+	 */
+	public Puzzle random(long seed) {
 		Puzzle gamePuzzle = new Puzzle();
-		String[] data = new String[4];
-		for(int i=0; i<4; i++) {
-			data[i] = "";
-		}		
-		for(int i=0; i<4; i++) {
-			for(int j=0; j<4; j++) {
-				Random letterRandom = new Random();
-				char c = (char) (letterRandom.nextInt(26) + 'A');
-				data[i] += Character.toString(c);
-			}
+		Random letterRandom = new Random(seed);
+		String[] data = new String[size];
+		for(int i=0; i<size; i++) {
+			StringBuilder line = new StringBuilder(size);
+			for(int j=0; j<size; j++)
+				line.append((char) (letterRandom.nextInt(26) + 'A'));
+			data[i] = line.toString();
 		}
 		Table aux = new Table(data);
 		gamePuzzle.setTable(aux);
 		List<Puzzle.Solution> list = getSolutions(gamePuzzle.table);
 		gamePuzzle.setSolutions(list);
+		gamePuzzle.setSeed(seed);
+		gamePuzzle.setDictionaryVersion(Dictionary.getInstance().getVersion());
 		return gamePuzzle;
 	}
 	
 	/**
-	 * Return a list of solutions for this table. Solutions have at least 2 letters. Different solutions for the same word are discarded.
+	 * Return a list of solutions for this table. Solutions have at least 2 letters. Different solutions for the same word are discarded, 
+	 * keeping the first one found as canonical. With a solution cache, tables with the same letters are solved only once.
 	 * @param table - containing solutions
 	 * @return list of solutions
 	 */
 	public List<Puzzle.Solution> getSolutions(Table table) {
 		
-		if(table.getEmptyCells().size()!=0) {
+		if(table.getEmptyCount()!=0) {
 			return Collections.emptyList();
 		}
 		
-		dic = Dictionary.getInstance();
-		java.util.List<Puzzle.Solution> list = new ArrayList<Puzzle.Solution>();
+		Table.Fingerprint fingerprint = null;
+		if(solutionCache != null) {
+			fingerprint = table.getFingerprint();
+			List<Puzzle.Solution> cached = solutionCache.get(fingerprint);
+			if(cached != null) return cached;
+		}
 		
-		// loop the table
-		for(int i=1; i<=Table.TABLE_SIZE; i++) {
-			for(int j=1; j<=Table.TABLE_SIZE; j++) {
-				char letter = table.getLetter(i,j); // first letter of the word
-				String aux = Character.toString(letter);
-				boolean[][] visited = new boolean[Table.TABLE_SIZE + 1][Table.TABLE_SIZE+1];
-				for(int z=1; z<=Table.TABLE_SIZE; z++) {
-					for(int k=1; k<=Table.TABLE_SIZE; k++) {
-						visited[z][k] = false;
-					}
-				}
-				visited[i][j] = true;
-				List<Table.Cell> neighbors = table.getNeighbors(table.getCell(i,j));
-				Search search = new Search(dic.trie.root);
-				search.continueWith(letter); 
-				Search searchAux = new Search(search);
-				for (Cell neighbor : neighbors) {
-					search = new Search(searchAux);
-					if(search.continueWith(neighbor.getLetter())) {
-						List<Puzzle.Solution> listAux = getRecursiveSolutions(table, visited, neighbor, aux, search);
-						if(listAux!=null) list.addAll(listAux);
-					}
-			    }
-			}
-		}	
+		dic = Dictionary.getInstance();
+		Solver solver = new Solver(dic.trie.compact, table);
+		List<Puzzle.Solution> solutions;
+		if(solverPool != null && solver.getCells() >= parallelThreshold) 
+			solutions = solver.solve(solverPool);
+		else
+			solutions = solver.solve();
 		
-		List<Puzzle.Solution> finalList = new ArrayList<Puzzle.Solution>();
-		for (Puzzle.Solution element : list) { 		      
-	        String word = element.getWord();  
-	        boolean itAppears = false;
-	        for(Puzzle.Solution element2 : finalList) {
-	        	if(element2.getWord().equals(word)) itAppears = true;
-	        }
-	        if(!itAppears) finalList.add(element);
-	    }
-
-		return list;
+		if(solutionCache != null) 
+			return solutionCache.put(fingerprint, solutions);
+		return solutions;
 	}
 	
-	public java.util.List<Puzzle.Solution> getRecursiveSolutions(Table table, boolean[][] visited, Cell actual, String aux, Search search) {
-		
-		List<Puzzle.Solution> returnList = new ArrayList<Puzzle.Solution>();
-		
-		aux += Character.toString(actual.getLetter()); 
-		visited[actual.getRow()][actual.getColumn()] = true;
+	/**
+	 * Lazy stream of the solutions of this table, in the same order as in getSolutions. 
+	 * The table is searched as solutions are consumed, hence short-circuiting operations 
+	 * (such as limit, findFirst or anyMatch) stop the search early and no list of solutions is created. 
+	 * The table must not change while the stream is consumed.
+	 * @param table - containing solutions
+	 * @return sequential stream of solutions
+	 */
+	public Stream<Puzzle.Solution> solutions(Table table) {
 		
-		List<Table.Cell> listCells = new ArrayList<Table.Cell>();
-		for(int i=1; i<=Table.TABLE_SIZE; i++) {
-			for(int j=1; j<=Table.TABLE_SIZE; j++) {
-				if(visited[i][j]==true) listCells.add(table.getCell(i, j));
-			}
-		}
-		Puzzle.Solution actualSolution = new Puzzle.Solution(aux, listCells);
-		if(search.isWord()==true) {
-			returnList.add(actualSolution);
+		if(table.getEmptyCount()!=0) {
+			return Stream.empty();
 		}
-	
-		Search auxSearch = new Search(search);
 		
-		List<Table.Cell> neighbors = table.getNeighbors(table.getCell(actual.getRow(),actual.getColumn()));
-		for (Cell neighbor : neighbors) {
-			search = new Search(auxSearch);
-			if(search.continueWith(neighbor.getLetter())) {
-				returnList.addAll(getRecursiveSolutions(table, visited, neighbor, aux, search));
-			}
-	    }
+		if(solutionCache != null) {
+			List<Puzzle.Solution> cached = solutionCache.get(table.getFingerprint());
+			if(cached != null) return cached.stream();
+		}
 		
-		return returnList;
+		dic = Dictionary.getInstance();
+		Solver solver = new Solver(dic.trie.compact, table);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(solver.iterator(0, solver.getCells()),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
 	}
 }
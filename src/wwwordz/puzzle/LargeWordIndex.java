@@ -0,0 +1,153 @@
+package wwwordz.puzzle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <b>An index of the large words in a trie, i.e. the words in leaf nodes.
+ * All words are stored in a single char array, sorted by length, with an offset per word
+ * and the index of the first word of each length. A random word with a minimum length is
+ * sampled in constant time by drawing an index among the words with at least that length.
+ * A weighting may favour some lengths, by rejecting some of the drawn words.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class LargeWordIndex
+extends java.lang.Object {
+
+	/**
+	 * <b>Weighting of the large words drawn from the index.</b><br>
+	 */
+	public enum Weighting {
+		/**
+		 * All words have the same probability
+		 */
+		UNIFORM {
+			@Override
+			boolean accept(int length, int longest, Random random) {
+				return true;
+			}
+		},
+		/**
+		 * The probability of a word is proportional to its length
+		 */
+		LENGTH {
+			@Override
+			boolean accept(int length, int longest, Random random) {
+				return random.nextInt(longest) < length;
+			}
+		};
+
+		/**
+		 * Check if a drawn word is accepted
+		 * @param length - of drawn word
+		 * @param longest - length in the index
+		 * @param random - generator
+		 * @return true if accepted; false if another word must be drawn
+		 */
+		abstract boolean accept(int length, int longest, Random random);
+	}
+
+	private final char[] letters;
+	private final int[] offsets;
+	private final int[] firstOfLength;
+
+	/**
+	 * Create an index with the given words
+	 * @param words - to index
+	 */
+	public LargeWordIndex(List<java.lang.String> words) {
+		java.lang.String[] sorted = words.toArray(new java.lang.String[words.size()]);
+		Arrays.sort(sorted, Comparator.comparingInt(java.lang.String::length));
+		int longest = sorted.length == 0 ? 0 : sorted[sorted.length-1].length();
+		int total = 0;
+		for(java.lang.String word : sorted)
+			total += word.length();
+
+		letters = new char[total];
+		offsets = new int[sorted.length + 1];
+		firstOfLength = new int[longest + 2];
+		int length = 0;
+		for(int index=0; index<sorted.length; index++) {
+			java.lang.String word = sorted[index];
+			while(length <= word.length())
+				firstOfLength[length++] = index;
+			word.getChars(0, word.length(), letters, offsets[index]);
+			offsets[index+1] = offsets[index] + word.length();
+		}
+		while(length < firstOfLength.length)
+			firstOfLength[length++] = sorted.length;
+	}
+
+	/**
+	 * Number of words in this index
+	 * @return number of words
+	 */
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Length of the longest word in this index
+	 * @return length of longest word
+	 */
+	public int getLongest() {
+		return firstOfLength.length - 2;
+	}
+
+	/**
+	 * Draw a random large word. If there are no words with the minimum length then the longest are drawn.
+	 * @param random - generator
+	 * @param minimumLength - of the word
+	 * @param weighting - of words
+	 * @return word or an empty string if the index is empty
+	 */
+	public java.lang.String sample(Random random,
+								   int minimumLength,
+								   Weighting weighting) {
+		int index = sampleIndex(random, minimumLength, weighting);
+		if(index < 0) return "";
+		return new java.lang.String(letters, offsets[index], length(index));
+	}
+
+	/**
+	 * Draw the index of a random large word, as in sample, without creating a string
+	 * @param random - generator
+	 * @param minimumLength - of the word
+	 * @param weighting - of words
+	 * @return index of word or -1 if the index is empty
+	 */
+	int sampleIndex(Random random,
+					int minimumLength,
+					Weighting weighting) {
+		int size = size();
+		if(size == 0) return -1;
+		int longest = getLongest();
+		int from = firstOfLength[Math.max(0, Math.min(minimumLength, longest))];
+		int index;
+		do {
+			index = from + random.nextInt(size - from);
+		} while(!weighting.accept(length(index), longest, random));
+		return index;
+	}
+
+	/**
+	 * Length of the word with given index
+	 * @param index - of word
+	 * @return length
+	 */
+	int length(int index) {
+		return offsets[index+1] - offsets[index];
+	}
+
+	/**
+	 * Letter of the word with given index
+	 * @param index - of word
+	 * @param position - of letter in word
+	 * @return letter
+	 */
+	char letter(int index, int position) {
+		return letters[offsets[index] + position];
+	}
+}
@@ -0,0 +1,109 @@
+package wwwordz.puzzle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import wwwordz.shared.Puzzle;
+
+/**
+ * <b>A bounded cache of solved puzzles keyed by their seed, evicting the least recently used.
+ * A generator with a cache returns the cached puzzle when asked for a seed it already generated,
+ * hence a puzzle can be rebuilt from its seed without solving its table again.
+ * Cached puzzles are shared and must not be modified.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class PuzzleCache
+extends java.lang.Object {
+
+	/**
+	 * Default number of puzzles kept in a cache
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final int capacity;
+	private final Map<Long,Puzzle> puzzles;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Create a cache with default capacity
+	 */
+	public PuzzleCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a cache with given capacity
+	 * @param capacity - maximum number of puzzles kept
+	 */
+	public PuzzleCache(int capacity) {
+		this.capacity = capacity;
+		this.puzzles = new LinkedHashMap<Long,Puzzle>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long,Puzzle> eldest) {
+				return size() > PuzzleCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Puzzle generated from given seed, if it is cached
+	 * @param seed - of puzzle
+	 * @return puzzle or null if not cached
+	 */
+	public synchronized Puzzle get(long seed) {
+		Puzzle puzzle = puzzles.get(seed);
+		if(puzzle == null) misses++;
+		else hits++;
+		return puzzle;
+	}
+
+	/**
+	 * Add a puzzle to this cache, keyed by its seed
+	 * @param puzzle - to cache
+	 */
+	public synchronized void put(Puzzle puzzle) {
+		puzzles.put(puzzle.getSeed(), puzzle);
+	}
+
+	/**
+	 * Remove all puzzles from this cache
+	 */
+	public synchronized void clear() {
+		puzzles.clear();
+	}
+
+	/**
+	 * Number of puzzles in this cache
+	 * @return size
+	 */
+	public synchronized int size() {
+		return puzzles.size();
+	}
+
+	/**
+	 * Maximum number of puzzles kept in this cache
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Number of lookups that found a cached puzzle
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Number of lookups that didn't find a cached puzzle
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+}
@@ -0,0 +1,195 @@
+package wwwordz.puzzle;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import wwwordz.shared.Puzzle;
+
+/**
+ * <b>A bounded pool of puzzles generated in advance by background producer threads.
+ * Producers keep the pool full, blocking while it is at capacity, 
+ * and build the solution index of each puzzle, hence rounds don't build it when they take the puzzle.
+ * Taking a puzzle from the pool is immediate when some puzzle is ready (a hit);
+ * otherwise a puzzle is generated by the calling thread (a miss).
+ * Generators are not shared between threads: each producer has its own and so does each thread taking puzzles. 
+ * A producer that fails to generate a puzzle logs the failure and keeps producing after a short delay.
+ * The single instance of this class is shared by all rounds.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class PuzzlePool
+extends java.lang.Object {
+
+	/**
+	 * Default number of puzzles kept ready
+	 */
+	public static final int DEFAULT_CAPACITY = 4;
+	/**
+	 * Default number of producer threads
+	 */
+	public static final int DEFAULT_PRODUCERS = 1;
+	/**
+	 * Delay of a producer after failing to generate a puzzle, in milliseconds
+	 */
+	static final long FAILURE_DELAY = 100;
+	private static final Logger LOGGER = Logger.getLogger(PuzzlePool.class.getName());
+
+	private static PuzzlePool instance = null;
+
+	private final ThreadLocal<Generator> generators;
+	private final BlockingQueue<Puzzle> ready;
+	private final Thread[] producers;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong produced = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final long start = System.nanoTime();
+
+	/**
+	 * Create a pool and start its producers
+	 * @param generators - supplier of a generator of puzzles for each thread
+	 * @param capacity - maximum number of puzzles kept ready
+	 * @param producers - number of producer threads
+	 */
+	public PuzzlePool(Supplier<Generator> generators, int capacity, int producers) {
+		this.generators = ThreadLocal.withInitial(generators);
+		this.ready = new ArrayBlockingQueue<>(capacity);
+		this.producers = new Thread[producers];
+		for(int i=0; i<producers; i++) {
+			Generator generator = generators.get();
+			this.producers[i] = new Thread(() -> produce(generator), "Puzzle producer " + i);
+			this.producers[i].setDaemon(true);
+			this.producers[i].start();
+		}
+	}
+
+	/**
+	 * Single instance of this class, with default capacity and producers. 
+	 * Its generators share a cache of puzzles, hence the puzzle of a round can be rebuilt from its seed.
+	 * @return singleton
+	 */
+	public static synchronized PuzzlePool getInstance() {
+		if(instance==null) {
+			PuzzleCache cache = new PuzzleCache();
+			instance = new PuzzlePool(() -> {
+				Generator generator = new Generator();
+				generator.setCache(cache);
+				return generator;
+			}, DEFAULT_CAPACITY, DEFAULT_PRODUCERS);
+		}
+		return instance;
+	}
+	
+	/**
+	 * Generator of puzzles of this pool for the calling thread
+	 * @return generator
+	 */
+	public Generator getGenerator() {
+		return generators.get();
+	}
+
+	private void produce(Generator generator) {
+		try {
+			while(!Thread.currentThread().isInterrupted()) {
+				Puzzle puzzle;
+				try {
+					puzzle = generator.generate();
+					puzzle.getSolutionIndex();
+				}
+				catch (RuntimeException e) {
+					failures.incrementAndGet();
+					LOGGER.log(Level.WARNING, "Failed to generate a puzzle", e);
+					Thread.sleep(FAILURE_DELAY);
+					continue;
+				}
+				ready.put(puzzle);
+				produced.incrementAndGet();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Take a ready puzzle, or generate one if the pool is empty
+	 * @return puzzle
+	 */
+	public Puzzle take() {
+		Puzzle puzzle = ready.poll();
+		if(puzzle != null) {
+			hits.incrementAndGet();
+			return puzzle;
+		}
+		misses.incrementAndGet();
+		return generators.get().generate();
+	}
+
+	/**
+	 * Stop producers. Puzzles can still be taken, but they are generated when the pool is empty.
+	 */
+	public void shutdown() {
+		for(Thread producer : producers)
+			producer.interrupt();
+	}
+
+	/**
+	 * Number of puzzles ready to be taken
+	 * @return depth of pool
+	 */
+	public int getDepth() {
+		return ready.size();
+	}
+
+	/**
+	 * Maximum number of puzzles kept ready
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return ready.size() + ready.remainingCapacity();
+	}
+
+	/**
+	 * Number of puzzles taken from the pool
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Number of puzzles generated on take because the pool was empty
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Number of puzzles generated by producers
+	 * @return produced puzzles
+	 */
+	public long getProduced() {
+		return produced.get();
+	}
+
+	/**
+	 * Number of times producers failed to generate a puzzle
+	 * @return failures
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Average rate at which producers refilled the pool since it was created
+	 * @return puzzles per second
+	 */
+	public double getRefillRate() {
+		long elapsed = System.nanoTime() - start;
+		return elapsed == 0 ? 0 : produced.get() * 1e9 / elapsed;
+	}
+}
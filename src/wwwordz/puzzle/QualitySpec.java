@@ -0,0 +1,138 @@
+package wwwordz.puzzle;
+
+import java.util.List;
+
+import wwwordz.shared.Puzzle;
+
+/**
+ * <b>Quality targeted by puzzle generation: a minimum number of words, a minimum number of long words 
+ * and a time budget. A generator tries candidate tables until one satisfies this specification 
+ * or the budget is spent, and then returns the best candidate found. 
+ * A candidate is abandoned while it is being solved if it can't reach the target, 
+ * projecting the words found so far to all starting cells. As words found from the first starting cells 
+ * are not found again from the following ones, the projection tends to be optimistic, 
+ * hence candidates that could still reach the target are seldom abandoned.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class QualitySpec
+extends java.lang.Object {
+
+	/**
+	 * Default length of long words
+	 */
+	public static final int LONG_WORD_LENGTH = 5;
+	/**
+	 * Fraction of the starting cells solved before a candidate can be abandoned
+	 */
+	static final int ABORT_AFTER_FRACTION = 4;
+
+	private final int minimumWords;
+	private final int minimumLongWords;
+	private final int longWordLength;
+	private final long budget;
+
+	/**
+	 * Create a quality specification with the default length of long words
+	 * @param minimumWords - number of solutions
+	 * @param minimumLongWords - number of solutions with long words
+	 * @param budget - time to generate a puzzle, in milliseconds
+	 */
+	public QualitySpec(int minimumWords, int minimumLongWords, long budget) {
+		this(minimumWords, minimumLongWords, LONG_WORD_LENGTH, budget);
+	}
+
+	/**
+	 * Create a quality specification
+	 * @param minimumWords - number of solutions
+	 * @param minimumLongWords - number of solutions with long words
+	 * @param longWordLength - minimum length of long words
+	 * @param budget - time to generate a puzzle, in milliseconds
+	 */
+	public QualitySpec(int minimumWords, int minimumLongWords, int longWordLength, long budget) {
+		this.minimumWords = minimumWords;
+		this.minimumLongWords = minimumLongWords;
+		this.longWordLength = longWordLength;
+		this.budget = budget;
+	}
+
+	/**
+	 * Minimum number of solutions
+	 * @return minimum words
+	 */
+	public int getMinimumWords() {
+		return this.minimumWords;
+	}
+
+	/**
+	 * Minimum number of solutions with long words
+	 * @return minimum long words
+	 */
+	public int getMinimumLongWords() {
+		return this.minimumLongWords;
+	}
+
+	/**
+	 * Minimum length of long words
+	 * @return length
+	 */
+	public int getLongWordLength() {
+		return this.longWordLength;
+	}
+
+	/**
+	 * Time to generate a puzzle
+	 * @return budget in milliseconds
+	 */
+	public long getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Number of long words in given solutions
+	 * @param solutions - to count
+	 * @return number of solutions with long words
+	 */
+	int countLongWords(List<Puzzle.Solution> solutions) {
+		int count = 0;
+		for(Puzzle.Solution solution : solutions)
+			if(solution.getWord().length() >= longWordLength) count++;
+		return count;
+	}
+
+	/**
+	 * Check if given solutions satisfy this specification
+	 * @param solutions - of a table
+	 * @return true if there are enough words and long words; false otherwise
+	 */
+	public boolean isSatisfiedBy(List<Puzzle.Solution> solutions) {
+		return solutions.size() >= minimumWords && countLongWords(solutions) >= minimumLongWords;
+	}
+
+	/**
+	 * Score of given solutions, the fraction of each target reached, added. 
+	 * Solutions satisfying this specification have the maximum score of 2.
+	 * @param solutions - of a table
+	 * @return score between 0 and 2
+	 */
+	public double score(List<Puzzle.Solution> solutions) {
+		return fraction(solutions.size(), minimumWords) + fraction(countLongWords(solutions), minimumLongWords);
+	}
+
+	private static double fraction(int count, int minimum) {
+		return minimum <= 0 ? 1 : Math.min(1, (double) count / minimum);
+	}
+
+	/**
+	 * Check if a table may still reach this specification, 
+	 * projecting the solutions found from some starting cells to all starting cells
+	 * @param solutions - found so far
+	 * @param solved - number of starting cells already solved
+	 * @param cells - number of starting cells
+	 * @return false if the table clearly can't reach this specification; true otherwise
+	 */
+	boolean isReachable(List<Puzzle.Solution> solutions, int solved, int cells) {
+		if(solved * ABORT_AFTER_FRACTION < cells) return true;
+		return (long) solutions.size() * cells >= (long) minimumWords * solved
+				&& (long) countLongWords(solutions) * cells >= (long) minimumLongWords * solved;
+	}
+}
@@ -0,0 +1,118 @@
+package wwwordz.puzzle;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import wwwordz.shared.Puzzle;
+import wwwordz.shared.Table;
+
+/**
+ * <b>A bounded cache of the solutions of tables keyed by their fingerprint, evicting the least recently used.
+ * A generator with a cache solves each table only once, hence solving a table with the same letters again 
+ * (a duplicate or a replayed table) takes a single lookup. 
+ * Only tables with exactly the same letters share solutions: a rotated or mirrored table 
+ * has other canonical paths and solutions in another order. 
+ * Cached solutions are shared and can't be modified.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class SolutionCache
+extends java.lang.Object {
+
+	/**
+	 * Default number of solved tables kept in a cache
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final int capacity;
+	private final Map<Table.Fingerprint,List<Puzzle.Solution>> solutions;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Create a cache with default capacity
+	 */
+	public SolutionCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a cache with given capacity
+	 * @param capacity - maximum number of solved tables kept
+	 */
+	public SolutionCache(int capacity) {
+		this.capacity = capacity;
+		this.solutions = new LinkedHashMap<Table.Fingerprint,List<Puzzle.Solution>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Table.Fingerprint,List<Puzzle.Solution>> eldest) {
+				return size() > SolutionCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Solutions of a table with given fingerprint, if they are cached
+	 * @param fingerprint - of table
+	 * @return unmodifiable list of solutions or null if not cached
+	 */
+	public synchronized List<Puzzle.Solution> get(Table.Fingerprint fingerprint) {
+		List<Puzzle.Solution> found = solutions.get(fingerprint);
+		if(found == null) misses++;
+		else hits++;
+		return found;
+	}
+
+	/**
+	 * Add the solutions of a table to this cache, keyed by its fingerprint
+	 * @param fingerprint - of table
+	 * @param solutions - of table
+	 * @return unmodifiable list of cached solutions
+	 */
+	public synchronized List<Puzzle.Solution> put(Table.Fingerprint fingerprint, List<Puzzle.Solution> solutions) {
+		List<Puzzle.Solution> cached = Collections.unmodifiableList(solutions);
+		this.solutions.put(fingerprint, cached);
+		return cached;
+	}
+
+	/**
+	 * Remove all solved tables from this cache
+	 */
+	public synchronized void clear() {
+		solutions.clear();
+	}
+
+	/**
+	 * Number of solved tables in this cache
+	 * @return size
+	 */
+	public synchronized int size() {
+		return solutions.size();
+	}
+
+	/**
+	 * Maximum number of solved tables kept in this cache
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Number of lookups that found cached solutions
+	 * @return hits
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Number of lookups that didn't find cached solutions
+	 * @return misses
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+}
@@ -0,0 +1,349 @@
+package wwwordz.puzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import wwwordz.shared.Puzzle;
+import wwwordz.shared.Table;
+
+/**
+ * <b>Finds the solutions of a table, searching the compact trie of a dictionary.
+ * Cells are numbered in row-major order and the cells visited by the current path are kept in a bit mask, 
+ * hence tables up to 8 by 8 can be solved. The search only follows paths that are prefixes of words in the trie, 
+ * so its cost is bounded by the trie rather than by the number of paths in the table.
+ * Neighbors of each cell are a precomputed bit mask, hence the unvisited neighbors of a cell are
+ * its neighbor mask without the visited mask. The letters of the current path are kept in a char array
+ * and a solution is only created when a word is found for the first time. 
+ * Words already found are recognized by their trie cursor, kept in an open addressing int set, 
+ * and the first path found for a word is its canonical path. 
+ * Paths of solutions are encoded in traversal order, with a byte per cell, in chunks shared by many solutions. 
+ * The search is a depth first traversal with an explicit stack, driven by an iterator over solutions, 
+ * hence solutions can be enumerated lazily and the search stops when no more solutions are requested. 
+ * Starting cells are independent, hence they can be solved in parallel in a fork/join pool, 
+ * each task with its own buffers, and results are merged in the order of the starting cells.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+class Solver
+extends java.lang.Object {
+
+	/**
+	 * Largest table size, such that all cells fit in a long mask
+	 */
+	static final int MAXIMUM_SIZE = 8;
+	/**
+	 * Size of the byte arrays where the paths of solutions are encoded
+	 */
+	static final int PATH_CHUNK = 512;
+	static final long[][] NEIGHBORS = new long[MAXIMUM_SIZE + 1][];
+	static {
+		for(int size=1; size<=MAXIMUM_SIZE; size++)
+			NEIGHBORS[size] = neighborMasks(size);
+	}
+
+	private final CompactTrie trie;
+	private final int size;
+	private final int cells;
+	private final long[] neighbors;
+	private final char[] letters;
+	private final char[] word;
+	private final int[] stackCell;
+	private final int[] stackNode;
+	private final long[] stackVisited;
+	private final long[] stackNext;
+	private byte[] paths = null;
+	private int pathsUsed = 0;
+	private int[] found = new int[64];
+	private int foundCount = 0;
+
+	/**
+	 * Create a solver for a full table
+	 * @param trie - with words
+	 * @param table - to solve
+	 * @throws IllegalArgumentException - if table is larger than MAXIMUM_SIZE
+	 */
+	Solver(CompactTrie trie, Table table) {
+		if(table.getSize() > MAXIMUM_SIZE)
+			throw new IllegalArgumentException("Tables larger than "+MAXIMUM_SIZE+" can't be solved");
+		this.trie = trie;
+		this.size = table.getSize();
+		this.cells = size * size;
+		this.neighbors = NEIGHBORS[size];
+		this.letters = new char[cells];
+		this.word = new char[cells];
+		this.stackCell = new int[cells];
+		this.stackNode = new int[cells];
+		this.stackVisited = new long[cells];
+		this.stackNext = new long[cells];
+		for(int cell=0; cell<cells; cell++)
+			letters[cell] = table.getLetter(cell);
+	}
+	
+	/**
+	 * Create a solver for the same table of another solver, with its own buffers
+	 * @param solver - to copy
+	 */
+	Solver(Solver solver) {
+		this.trie = solver.trie;
+		this.size = solver.size;
+		this.cells = solver.cells;
+		this.neighbors = solver.neighbors;
+		this.letters = solver.letters;
+		this.word = new char[cells];
+		this.stackCell = new int[cells];
+		this.stackNode = new int[cells];
+		this.stackVisited = new long[cells];
+		this.stackNext = new long[cells];
+	}
+	
+	/**
+	 * Number of cells in the table of this solver
+	 * @return number of cells
+	 */
+	int getCells() {
+		return this.cells;
+	}
+
+	/**
+	 * Mask with the neighbors of each cell of a square table, cells numbered in row-major order
+	 * @param size - of table
+	 * @return neighbor masks
+	 */
+	static long[] neighborMasks(int size) {
+		long[] masks = new long[size * size];
+		for(int row=0; row<size; row++)
+			for(int column=0; column<size; column++)
+				for(int i=Math.max(0, row-1); i<=Math.min(size-1, row+1); i++)
+					for(int j=Math.max(0, column-1); j<=Math.min(size-1, column+1); j++)
+						if(i != row || j != column)
+							masks[row * size + column] |= 1L << (i * size + j);
+		return masks;
+	}
+
+	/**
+	 * All solutions of the table, starting in each cell in row-major order
+	 * @return list of solutions
+	 */
+	List<Puzzle.Solution> solve() {
+		List<Puzzle.Solution> solutions = new ArrayList<>();
+		for(Iterator<Puzzle.Solution> iterator = iterator(0, cells); iterator.hasNext(); )
+			solutions.add(iterator.next());
+		return solutions;
+	}
+
+	/**
+	 * All solutions of the table, unless it can't reach given quality. 
+	 * The solutions found are checked after each starting cell and the search is abandoned 
+	 * as soon as the table clearly can't reach the specification.
+	 * @param spec - quality to reach
+	 * @return list of solutions or null if the search was abandoned
+	 */
+	List<Puzzle.Solution> solve(QualitySpec spec) {
+		List<Puzzle.Solution> solutions = new ArrayList<>();
+		resetFound();
+		for(int start=0; start<cells; start++) {
+			solveFrom(start, solutions);
+			if(!spec.isReachable(solutions, start + 1, cells))
+				return null;
+		}
+		return solutions;
+	}
+
+	/**
+	 * All solutions of the table, with starting cells solved in parallel in given pool.
+	 * Solutions are in the same order as in solve().
+	 * @param pool - where starting cells are solved
+	 * @return list of solutions
+	 */
+	List<Puzzle.Solution> solve(ForkJoinPool pool) {
+		List<Puzzle.Solution> merged = pool.invoke(new SolveTask(this, 0, cells));
+		List<Puzzle.Solution> solutions = new ArrayList<>(merged.size());
+		Set<String> words = new HashSet<>();
+		for(Puzzle.Solution solution : merged)
+			if(words.add(solution.getWord()))
+				solutions.add(solution);
+		return solutions;
+	}
+
+	/**
+	 * Add solutions starting in given cell to a list, 
+	 * skipping words already found since the search started
+	 * @param start - cell index
+	 * @param solutions - where solutions are added
+	 */
+	void solveFrom(int start, List<Puzzle.Solution> solutions) {
+		for(Iterator<Puzzle.Solution> iterator = new SolutionIterator(start, start + 1); iterator.hasNext(); )
+			solutions.add(iterator.next());
+	}
+
+	/**
+	 * Lazy iterator over the solutions starting in a range of cells, in the same order as in solve(). 
+	 * The search advances only as solutions are requested and starts over the set of words found. 
+	 * Iterators share the buffers of this solver, hence only one can be used at a time.
+	 * @param from - first starting cell
+	 * @param to - cell after the last starting cell
+	 * @return iterator over solutions
+	 */
+	Iterator<Puzzle.Solution> iterator(int from, int to) {
+		resetFound();
+		return new SolutionIterator(from, to);
+	}
+
+	/**
+	 * Clear the set of words found, at the start of a search
+	 */
+	private void resetFound() {
+		Arrays.fill(found, 0);
+		foundCount = 0;
+	}
+
+	/**
+	 * Add a trie cursor to the set of words found
+	 * @param node - cursor of word
+	 * @return true if the word was not found before; false otherwise
+	 */
+	private boolean addFound(int node) {
+		if(2 * (foundCount + 1) > found.length) {
+			int[] old = found;
+			found = new int[2 * old.length];
+			foundCount = 0;
+			for(int key : old)
+				if(key != 0) addFound(key - 1);
+		}
+		int mask = found.length - 1;
+		for(int slot = (node * 0x9E3779B9) >>> 7 & mask; ; slot = (slot + 1) & mask) {
+			if(found[slot] == node + 1) return false;
+			if(found[slot] == 0) {
+				found[slot] = node + 1;
+				foundCount++;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Solution with the word and the cells of the current path, encoded in a chunk shared with other solutions
+	 * @param depth - of current path
+	 * @return solution
+	 */
+	private Puzzle.Solution solution(int depth) {
+		if(paths == null || pathsUsed + depth > paths.length) {
+			paths = new byte[Math.max(PATH_CHUNK, depth)];
+			pathsUsed = 0;
+		}
+		int offset = pathsUsed;
+		for(int i=0; i<depth; i++)
+			paths[pathsUsed++] = Puzzle.Solution.encode(stackCell[i] / size + 1, stackCell[i] % size + 1);
+		return new Puzzle.Solution(new String(word, 0, depth), paths, offset);
+	}
+
+	/**
+	 * <b>Iterator over solutions, searching depth first with an explicit stack. 
+	 * For each depth of the current path the stack keeps the trie cursor, the visited mask 
+	 * and the neighbors still to follow.</b><br>
+	 */
+	private class SolutionIterator
+	extends java.lang.Object
+	implements Iterator<Puzzle.Solution> {
+
+		private int start;
+		private final int end;
+		private int depth = 0;
+		private Puzzle.Solution next = null;
+
+		SolutionIterator(int from, int to) {
+			this.start = from;
+			this.end = to;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(next == null) next = advance();
+			return next != null;
+		}
+
+		@Override
+		public Puzzle.Solution next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			Puzzle.Solution solution = next;
+			next = null;
+			return solution;
+		}
+
+		private Puzzle.Solution advance() {
+			while(true) {
+				if(depth == 0) {
+					if(start == end) return null;
+					int cell = start++;
+					int node = trie.child(CompactTrie.ROOT, letters[cell]);
+					if(node != CompactTrie.NONE)
+						push(cell, node, 1L << cell);
+					continue;
+				}
+				int top = depth - 1;
+				long pending = stackNext[top];
+				if(pending == 0) {
+					depth--;
+					continue;
+				}
+				stackNext[top] = pending & (pending - 1);
+				int neighbor = Long.numberOfTrailingZeros(pending);
+				int child = trie.child(stackNode[top], letters[neighbor]);
+				if(child == CompactTrie.NONE) continue;
+				
+				long visited = stackVisited[top] | (1L << neighbor);
+				push(neighbor, child, visited);
+				if(trie.isWord(child) && addFound(child))
+					return solution(depth);
+			}
+		}
+
+		private void push(int cell, int node, long visited) {
+			word[depth] = letters[cell];
+			stackCell[depth] = cell;
+			stackNode[depth] = node;
+			stackVisited[depth] = visited;
+			stackNext[depth] = neighbors[cell] & ~visited;
+			depth++;
+		}
+	}
+
+	/**
+	 * <b>Solves a range of starting cells, splitting it in halves down to single cells.</b><br>
+	 */
+	static class SolveTask
+	extends RecursiveTask<List<Puzzle.Solution>> {
+
+		private static final long serialVersionUID = 1L;
+		private final Solver solver;
+		private final int from;
+		private final int to;
+
+		SolveTask(Solver solver, int from, int to) {
+			this.solver = solver;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<Puzzle.Solution> compute() {
+			if(to - from == 1) {
+				List<Puzzle.Solution> solutions = new ArrayList<>();
+				new Solver(solver).solveFrom(from, solutions);
+				return solutions;
+			}
+			int middle = (from + to) >>> 1;
+			SolveTask second = new SolveTask(solver, middle, to);
+			second.fork();
+			List<Puzzle.Solution> solutions = new SolveTask(solver, from, middle).compute();
+			solutions.addAll(second.join());
+			return solutions;
+		}
+	}
+}
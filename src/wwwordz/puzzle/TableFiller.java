@@ -0,0 +1,154 @@
+package wwwordz.puzzle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import wwwordz.shared.Table;
+
+/**
+ * <b>Fills tables of a given size with large words, placing each word in a path of neighboring cells.
+ * A word starts in a random empty cell and each following letter is placed in a neighbor
+ * that is either empty or already has that letter, hence words may share cells.
+ * When a path reaches a dead end the placement backtracks, so that whole words are placed.
+ * If no word drawn for a starting cell can be placed, the longest prefix found is placed instead.
+ * Cells are numbered in row-major order and neighbors are the precomputed masks of the solver.
+ * Letters, empty cells (kept in a list updated as cells are filled) and paths are in arrays
+ * reused from table to table, and so is the random generator, reseeded for each table.
+ * A filler is not thread safe.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+class TableFiller
+extends java.lang.Object {
+
+	/**
+	 * Maximum number of words drawn for a starting cell before placing the longest prefix found
+	 */
+	static final int MAXIMUM_ATTEMPTS = 8;
+	/**
+	 * Maximum number of cells visited when placing a single word
+	 */
+	static final int MAXIMUM_STEPS = 1000;
+	private static final int NO_WORD = -1;
+
+	private final int size;
+	private final int cells;
+	private final long[] neighbors;
+	private final char[] letters;
+	private final int[] empty;
+	private final int[] position;
+	private int emptyCount;
+	private final int[] path;
+	private final int[] candidates;
+	private final int[] best;
+	private int bestLength;
+	private int bestWord;
+	private int steps;
+	private final Random random = new Random();
+
+	/**
+	 * Create a filler of tables of given size
+	 * @param size - of tables
+	 */
+	TableFiller(int size) {
+		this.size = size;
+		this.cells = size * size;
+		this.neighbors = Solver.NEIGHBORS[size];
+		this.letters = new char[cells];
+		this.empty = new int[cells];
+		this.position = new int[cells];
+		this.path = new int[cells];
+		this.candidates = new int[cells * 8];
+		this.best = new int[cells];
+	}
+
+	/**
+	 * Fill a table with large words
+	 * @param seed - of all random choices
+	 * @param words - to place in table
+	 * @param minimumLength - of words
+	 * @param weighting - of words
+	 * @return full table
+	 */
+	Table fill(long seed, LargeWordIndex words, int minimumLength, LargeWordIndex.Weighting weighting) {
+		random.setSeed(seed);
+		Arrays.fill(letters, '\0');
+		for(int cell=0; cell<cells; cell++)
+			empty[cell] = position[cell] = cell;
+		emptyCount = cells;
+
+		while(emptyCount > 0) {
+			int start = empty[random.nextInt(emptyCount)];
+			bestLength = 0;
+			bestWord = NO_WORD;
+			boolean placed = false;
+			for(int attempt=0; attempt<MAXIMUM_ATTEMPTS && !placed; attempt++) {
+				int word = words.sampleIndex(random, minimumLength, weighting);
+				if(word < 0) break;
+				steps = 0;
+				placed = place(words, word, start, 0, 1L << start);
+			}
+			if(placed)
+				write(words, bestWord, path, bestLength);
+			else if(bestWord != NO_WORD)
+				write(words, bestWord, best, bestLength);
+			else
+				throw new IllegalStateException("No large words to fill table");
+		}
+
+		Table table = new Table(size);
+		for(int cell=0; cell<cells; cell++)
+			table.setLetter(cell, letters[cell]);
+		return table;
+	}
+
+	/**
+	 * Place a word from given position in a path that continues in given cell
+	 * @return true if the whole word was placed; false otherwise
+	 */
+	private boolean place(LargeWordIndex words, int word, int cell, int depth, long used) {
+		path[depth] = cell;
+		if(depth + 1 > bestLength) {
+			System.arraycopy(path, 0, best, 0, depth + 1);
+			bestLength = depth + 1;
+			bestWord = word;
+		}
+		int length = words.length(word);
+		if(depth + 1 == length) {
+			bestLength = length;
+			bestWord = word;
+			return true;
+		}
+		if(++steps > MAXIMUM_STEPS) return false;
+
+		char next = words.letter(word, depth + 1);
+		int from = depth * 8, count = 0;
+		for(long bits = neighbors[cell] & ~used; bits != 0; bits &= bits - 1) {
+			int neighbor = Long.numberOfTrailingZeros(bits);
+			if(letters[neighbor] == '\0' || letters[neighbor] == next)
+				candidates[from + count++] = neighbor;
+		}
+		for(int i=0; i<count; i++) {
+			int j = i + random.nextInt(count - i);
+			int neighbor = candidates[from + j];
+			candidates[from + j] = candidates[from + i];
+			candidates[from + i] = neighbor;
+			if(place(words, word, neighbor, depth + 1, used | (1L << neighbor)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Write the first letters of a word in a path of cells, removing them from the empty cells
+	 */
+	private void write(LargeWordIndex words, int word, int[] cellsOfPath, int length) {
+		for(int i=0; i<length; i++) {
+			int cell = cellsOfPath[i];
+			if(letters[cell] != '\0') continue;
+			letters[cell] = words.letter(word, i);
+			int last = empty[--emptyCount];
+			empty[position[cell]] = last;
+			position[last] = position[cell];
+		}
+	}
+}
@@ -1,8 +1,20 @@
 package wwwordz.puzzle;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <b>A trie is data structure to store words efficiently using a tree. 
@@ -15,44 +27,159 @@ public class Trie
 extends java.lang.Object
 implements java.lang.Iterable<java.lang.String> {
 
+	/**
+	 * Root node of this trie. In compact mode it is null until the node structure is rebuilt by getRoot().
+	 * @deprecated use {@link #getRoot()}, which also gives the root of a trie in compact mode
+	 */
+	@Deprecated
 	public Node root;
+	CompactTrie compact;
+	private volatile LargeWordIndex largeWords;
 	
 	public Trie() {
 		this.root = new Node();
 	}
 	
+	/**
+	 * Create a trie in compact mode, backed by the given compact trie
+	 * @param compact - trie with the words
+	 */
+	Trie(CompactTrie compact) {
+		this.compact = compact;
+	}
+	
 	/**
 	 * Insert a word in the structure, starting from the root, calling a recursive method. 
+	 * If this trie was compacted, the node structure is rebuilt first.
 	 * @param word - to be inserted
 	 */
 	public void put(String word) {
+		this.largeWords = null;
+		if(this.compact != null) {
+			if(this.root == null) this.root = this.compact.toNodes();
+			this.compact = null;
+		}
 		this.root.put(word, 0);
 	}
 	
+	/**
+	 * Root node of this trie. 
+	 * In compact mode the node structure is rebuilt from the compact trie when first requested, 
+	 * and changes to those nodes are not seen by searches; words should be inserted with put().
+	 * @return root node
+	 */
+	public Node getRoot() {
+		if(this.root == null && this.compact != null)
+			this.root = this.compact.toNodes();
+		return this.root;
+	}
+	
+	/**
+	 * Convert this trie to its compact mode, backed by flat int arrays.
+	 * The node structure is discarded and all operations are served by the compact trie. 
+	 * @throws IllegalArgumentException - if some word has letters other than A to Z
+	 */
+	public void compact() {
+		if(this.compact == null) {
+			this.compact = CompactTrie.build(this.root);
+			this.root = null;
+		}
+	}
+	
+	/**
+	 * Check if this trie is in compact mode
+	 * @return true if compacted; false otherwise
+	 */
+	public boolean isCompact() {
+		return this.compact != null;
+	}
+	
 	/**
 	 * Start a word search from the root.
 	 * @return Trie.Search instance
 	 */ 
 	public Trie.Search startSearch() {
+		if(this.compact != null) return new Search(this.compact, CompactTrie.ROOT);
 		return new Search(this.root);
 	}
 	
 	/**
-	 * Performs a random walk in the data structure, randomly selecting a path in each node, 
-	 * until reaching a leaf (a node with no descendants).
+	 * Draws a random word from those in leaves (nodes with no descendants), 
+	 * with a probability proportional to its length.
 	 * @return word as a String
 	 */
 	public java.lang.String getRandomLargeWord() {
-		return this.root.getRandomLargeWord();
+		return getLargeWordIndex().sample(ThreadLocalRandom.current(), 0, LargeWordIndex.Weighting.LENGTH);
+	}
+	
+	/**
+	 * Index of the words in leaves (nodes with no descendants). 
+	 * The index is created when first requested and discarded when a word is inserted.
+	 * @return index of large words
+	 */
+	public LargeWordIndex getLargeWordIndex() {
+		LargeWordIndex index = this.largeWords;
+		if(index == null) {
+			List<java.lang.String> leaves = new ArrayList<>();
+			if(this.compact != null) 
+				this.compact.collectLeaves(CompactTrie.ROOT, new StringBuilder(), leaves);
+			else 
+				this.root.collectLeaves(new StringBuilder(), leaves);
+			this.largeWords = index = new LargeWordIndex(leaves);
+		}
+		return index;
 	}
 	
 	/**
 	 * Returns an iterator over the strings stored in the trie
 	 */
 	public java.util.Iterator<java.lang.String> iterator() {
+		if(this.compact != null) return this.compact.iterator(CompactTrie.ROOT, "");
 		return new NodeIterator();
 	}
 	
+	/**
+	 * Returns a spliterator over the strings stored in the trie, 
+	 * that splits at the top-level children of the root.
+	 */
+	@Override
+	public java.util.Spliterator<java.lang.String> spliterator() {
+		List<Supplier<Iterator<java.lang.String>>> subtries = new ArrayList<>();
+		if(this.compact != null) {
+			CompactTrie trie = this.compact;
+			int letters = trie.childLetters(CompactTrie.ROOT);
+			for(int child = trie.firstChild(CompactTrie.ROOT); letters != 0; child++, letters &= letters - 1) {
+				int cursor = child;
+				String prefix = String.valueOf((char) ('A' + Integer.numberOfTrailingZeros(letters)));
+				subtries.add(() -> trie.iterator(cursor, prefix));
+			}
+		}
+		else {
+			for(Map.Entry<Character, Node> child : this.root.childrens.entrySet()) {
+				Node node = child.getValue();
+				String prefix = child.getKey().toString();
+				subtries.add(() -> new NodeIterator(node, prefix));
+			}
+		}
+		return new WordSpliterator(subtries, 0, subtries.size());
+	}
+	
+	/**
+	 * Sequential stream of the strings stored in the trie
+	 * @return stream of words
+	 */
+	public Stream<java.lang.String> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Parallel stream of the strings stored in the trie, split at the top-level children of the root
+	 * @return stream of words
+	 */
+	public Stream<java.lang.String> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+	
 	/**
 	 * <b>Represents a node of the trie.</b><br>
 	 */
@@ -103,6 +230,23 @@ implements java.lang.Iterable<java.lang.String> {
 	    	return false;
 	    }
 	    
+	    /**
+	     * Collect the words in leaves below this node
+	     * @param prefix - of this node
+	     * @param leaves - list where words are added
+	     */
+	    void collectLeaves(StringBuilder prefix, List<String> leaves) {
+	    	if(this.childrens.isEmpty()) {
+	    		if(this.completedWord && prefix.length() > 0) leaves.add(prefix.toString());
+	    		return;
+	    	}
+	    	for(Map.Entry<Character, Node> child : this.childrens.entrySet()) {
+	    		prefix.append(child.getKey().charValue());
+	    		child.getValue().collectLeaves(prefix, leaves);
+	    		prefix.setLength(prefix.length() - 1);
+	    	}
+	    }
+	    
 	    /**
 	     * Recursive method of put
 	     * @param word - to insert
@@ -126,9 +270,12 @@ implements java.lang.Iterable<java.lang.String> {
 		}
 	    
 	    /**
-	     * Returns a large word from trie
+	     * Returns a large word from trie, walking from this node to a leaf through random children
 	     * @return a large word
+	     * @deprecated the walk favors words with few siblings; use {@link Trie#getLargeWordIndex()} 
+	     * to draw large words uniformly or weighted by length
 	     */
+	    @Deprecated
 	    public String getRandomLargeWord() {	    	
 	    	int sizeMap = this.childrens.size();
 	    	int low = 1;
@@ -147,7 +294,9 @@ implements java.lang.Iterable<java.lang.String> {
 	     * Recursive method of getRandomLargeWord()
 	     * @param aux - string in that point of the recursion 
 	     * @return a large word
+	     * @deprecated use {@link Trie#getLargeWordIndex()}
 	     */
+	    @Deprecated
 	    public String getRandomLargeWord(String aux) {    		    	
 	    	if(this.completedWord==true && this.childrens.size()==0) {
 	    		return aux;
@@ -164,84 +313,129 @@ implements java.lang.Iterable<java.lang.String> {
 	    	}
 	    	return "";
 	    }
-
+	    
 	}
 	
 	/**
-	 * <b>Iterator over strings stored in the internal node structure It traverses the node tree depth first,
-	 *  using coroutine with threads, and collects all possible words in no particular order. 
+	 * <b>Iterator over strings stored in the internal node structure. It traverses the node tree depth first,
+	 *  using an explicit stack of children iterators, and collects all possible words in no particular order. 
 	 *  An instance of this class is returned by iterator()</b><br>
 	 */
 	public class NodeIterator
 	extends java.lang.Object
-	implements java.util.Iterator<java.lang.String>, java.lang.Runnable {
+	implements java.util.Iterator<java.lang.String> {
 		
-		private java.lang.Thread thread;
-		private boolean terminated;
+		private final Deque<Iterator<Map.Entry<Character, Node>>> stack = new ArrayDeque<>();
+		private final StringBuilder prefix = new StringBuilder();
 		private java.lang.String nextWord;
 		
 		NodeIterator() {
-			thread = new Thread(this,"Node iterator");
-            thread.start();
+			this(root, "");
 		}
 		
-		public void run() {      
-            terminated = false;
-            Set<Character> keys = root.childrens.keySet();
-            for (Character key : keys) {
-	    		visitValues(root.childrens.get(key), Character.toString(key));
-	    	}   
-            synchronized (this) {
-                terminated = true;
-                handshake();
-            }
+		/**
+		 * Iterate over the words with given prefix, starting in the node of that prefix
+		 * @param start - node of prefix
+		 * @param prefix - of all words
+		 */
+		NodeIterator(Node start, String prefix) {
+			this.prefix.append(prefix);
+			if(prefix.length() > 0 && start.completedWord) nextWord = prefix;
+			stack.push(start.childrens.entrySet().iterator());
 		}
 		
 		public boolean hasNext() {
-			synchronized (this) {
-                if(! terminated)
-                    handshake();
-            }
+			if(nextWord == null) advance();
             return nextWord != null;
 		}
 		
 		public java.lang.String next() {
-			var word = nextWord;	
-            synchronized (this) {
-                nextWord = null;
-            }         
+			if(!hasNext()) throw new NoSuchElementException();
+			java.lang.String word = nextWord;	
+            nextWord = null;
             return word;
 		}
 		
-		private void visitValues(Node node, String aux) {
-			if(node.completedWord==true) {
-	            synchronized (this) {
-	                if(nextWord != null)
-	                    handshake();
-	                nextWord = aux;
-	                handshake();
-	            }
-			}           
-            Set<Character> keys = node.childrens.keySet();
-            for (Character key : keys) {
-	    		visitValues(node.childrens.get(key), aux + Character.toString(key));
-	    	}   
-        }
+		private void advance() {
+			while(!stack.isEmpty()) {
+				Iterator<Map.Entry<Character, Node>> children = stack.peek();
+				if(children.hasNext()) {
+					Map.Entry<Character, Node> child = children.next();
+					prefix.append(child.getKey().charValue());
+					stack.push(child.getValue().childrens.entrySet().iterator());
+					if(child.getValue().completedWord) {
+						nextWord = prefix.toString();
+						return;
+					}
+				}
+				else {
+					stack.pop();
+					if(!stack.isEmpty()) prefix.setLength(prefix.length() - 1);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <b>Spliterator over strings stored in the trie. 
+	 * Each top-level child of the root is a subtrie traversed by its own iterator, 
+	 * and splitting hands half of the subtries not yet started to a new spliterator.</b><br>
+	 */
+	class WordSpliterator
+	extends java.lang.Object
+	implements java.util.Spliterator<java.lang.String> {
 		
-		private void handshake() {
-            notify();
-            try {
-                wait();
-            } catch (InterruptedException cause) {
-                throw new RuntimeException("Unexpected interruption while waiting",cause);
-            }
-        }
+		private final List<Supplier<Iterator<java.lang.String>>> subtries;
+		private int next;
+		private int end;
+		private Iterator<java.lang.String> current;
+		
+		WordSpliterator(List<Supplier<Iterator<java.lang.String>>> subtries, int next, int end) {
+			this.subtries = subtries;
+			this.next = next;
+			this.end = end;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super java.lang.String> action) {
+			while(current == null || !current.hasNext()) {
+				if(next == end) return false;
+				current = subtries.get(next++).get();
+			}
+			action.accept(current.next());
+			return true;
+		}
+		
+		@Override
+		public Spliterator<java.lang.String> trySplit() {
+			if(end - next < 2) return null;
+			int middle = (next + end) >>> 1;
+			WordSpliterator prefix = new WordSpliterator(subtries, next, middle);
+			next = middle;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+		
+		@Override
+		public int characteristics() {
+			return DISTINCT | NONNULL;
+		}
 	}
 	
+	/**
+	 * <b>A search in the trie, one letter at a time. 
+	 * In compact mode the search is an int cursor over the compact trie; otherwise it holds a node.</b><br>
+	 */
 	public static class Search
 	extends java.lang.Object {
 		
 		public Node node;
+		final CompactTrie compact;
+		int cursor;
 		
 		/**
 		 * Create a search starting in given node
@@ -249,6 +443,17 @@ implements java.lang.Iterable<java.lang.String> {
 		 */
 		public Search(Trie.Node node) {
 			this.node = node;
+			this.compact = null;
+		}
+		
+		/**
+		 * Create a search starting in given cursor of a compact trie
+		 * @param compact - trie to search
+		 * @param cursor - prefix already searched
+		 */
+		Search(CompactTrie compact, int cursor) {
+			this.compact = compact;
+			this.cursor = cursor;
 		}
 		
 		/**
@@ -257,6 +462,8 @@ implements java.lang.Iterable<java.lang.String> {
 		 */
 		public Search(Trie.Search search) {
 			this.node = search.node;
+			this.compact = search.compact;
+			this.cursor = search.cursor;
 		}
 		
 		/**
@@ -265,6 +472,12 @@ implements java.lang.Iterable<java.lang.String> {
 		 * @return true if letter found; false otherwise
 		 */
 		boolean continueWith(char letter) {
+			if(this.compact != null) {
+				int next = this.compact.child(this.cursor, letter);
+				if(next == CompactTrie.NONE) return false;
+				this.cursor = next;
+				return true;
+			}
 			if(this.node.childrenAlreadyExists(letter)) {
 				Node aux = this.node.getChildrens().get(letter);
 				this.node = aux;
@@ -278,6 +491,7 @@ implements java.lang.Iterable<java.lang.String> {
 		 * @return true if node is a complete word; false otherwise
 		 */
 		boolean isWord() {
+			if(this.compact != null) return this.compact.isWord(this.cursor);
 			if(this.node.completedWord==true) return true;
 			return false;
 		}
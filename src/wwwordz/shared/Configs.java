@@ -23,6 +23,10 @@ extends java.lang.Object {
 	 * Ranking stage duration in milliseconds.
 	 */
 	public static final long RANKING_STAGE_DURATION = 5000L;
+	/**
+	 * Maximum number of players in a round of a room.
+	 */
+	public static final int ROOM_CAPACITY = 1000;
 	
 	public Configs() {}
 }
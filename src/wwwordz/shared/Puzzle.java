@@ -1,12 +1,33 @@
 package wwwordz.shared;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * <b>A puzzle, containing a table and list of solutions. 
  * A table is a square grid of letters and a solution is a word contained in the grid, 
  * where consecutive letters are in neighboring cells on the grid and the letter 
- * in each cell is used only once.</b><br>
+ * in each cell is used only once. 
+ * Solutions are indexed by word, hence checking a word takes constant time. 
+ * The index also gives each word an ordinal, its position among the different words of the solutions, 
+ * hence per word data, such as points or words already found, can be kept in arrays. 
+ * A puzzle records the seed and dictionary version it was generated with. 
+ * When serialized, solutions are written as a single byte array with the length and path of each solution, 
+ * and words are read back from the letters of the table. 
+ * Words are also written if they can't be read back, when there is no table or some path doesn't have 
+ * a cell per letter of its word.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Puzzle extends java.lang.Object implements Serializable {
@@ -16,10 +37,38 @@ public class Puzzle extends java.lang.Object implements Serializable {
 	 */
 	private static final long serialVersionUID = 1L;
 	public Table table;
-	public List<Puzzle.Solution> solutions;
+	public transient List<Puzzle.Solution> solutions;
+	private long seed;
+	private long dictionaryVersion;
+	private transient volatile SolutionIndex index;
 	
 	public Puzzle() {}
 	
+	/**
+	 * Seed from which this puzzle was generated. 
+	 * A puzzle can be generated again from its seed, table size and dictionary version.
+	 * @return seed
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+	
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Version of the dictionary used to generate this puzzle
+	 * @return dictionary version
+	 */
+	public long getDictionaryVersion() {
+		return this.dictionaryVersion;
+	}
+	
+	public void setDictionaryVersion(long dictionaryVersion) {
+		this.dictionaryVersion = dictionaryVersion;
+	}
+	
 	public Table getTable() {
 		return this.table;
 	}
@@ -34,8 +83,205 @@ public class Puzzle extends java.lang.Object implements Serializable {
 	
 	public void setSolutions(java.util.List<Solution> solutions) {
 		this.solutions = solutions;
+		this.index = null;
 	}
 	
+	/**
+	 * Solutions of this puzzle indexed by word. 
+	 * The index is created when first requested; if many solutions have the same word the first is kept. 
+	 * Solutions of the index are iterated in the order of their ordinals.
+	 * @return unmodifiable map from word to solution
+	 */
+	public Puzzle.SolutionIndex getSolutionIndex() {
+		SolutionIndex map = this.index;
+		if(map == null) this.index = map = new SolutionIndex(this.solutions);
+		return map;
+	}
+	
+	/**
+	 * Ordinal of a word among the different words of the solutions of this puzzle, 
+	 * from 0 to the size of the solution index
+	 * @param word - to check
+	 * @return ordinal or -1 if word is not a solution
+	 */
+	public int getOrdinal(java.lang.String word) {
+		return getSolutionIndex().getOrdinal(word);
+	}
+	
+	/**
+	 * Solution of this puzzle with given word
+	 * @param word - to check
+	 * @return solution or null if word is not a solution
+	 */
+	public Solution getSolution(java.lang.String word) {
+		return getSolutionIndex().get(word);
+	}
+	
+	/**
+	 * Points of a word in this puzzle
+	 * @param word - to score
+	 * @return points of the word if it is a solution; 0 otherwise
+	 */
+	public int getPoints(java.lang.String word) {
+		Solution solution = getSolution(word);
+		return solution == null ? 0 : solution.getPoints();
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		if(solutions == null) {
+			out.writeObject(null);
+			out.writeObject(null);
+			return;
+		}
+		int total = 0;
+		boolean spelled = table != null;
+		for(Solution solution : solutions) {
+			total += 1 + solution.length;
+			spelled &= solution.length == solution.word.length();
+		}
+		byte[] paths = new byte[total];
+		String[] words = spelled ? null : new String[solutions.size()];
+		int position = 0;
+		for(int i=0; i<solutions.size(); i++) {
+			Solution solution = solutions.get(i);
+			paths[position++] = (byte) solution.length;
+			System.arraycopy(solution.path, solution.offset, paths, position, solution.length);
+			position += solution.length;
+			if(words != null) words[i] = solution.word;
+		}
+		out.writeObject(paths);
+		out.writeObject(words);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		byte[] paths = (byte[]) in.readObject();
+		String[] words = (String[]) in.readObject();
+		if(paths == null) return;
+		solutions = new ArrayList<>();
+		char[] letters = new char[paths.length];
+		for(int position = 0; position < paths.length; ) {
+			int length = paths[position++] & 0xFF;
+			if(position + length > paths.length)
+				throw new InvalidObjectException("Truncated path of solution");
+			String word;
+			if(words != null) {
+				if(solutions.size() >= words.length)
+					throw new InvalidObjectException("Missing word of solution");
+				word = words[solutions.size()];
+			}
+			else if(table == null) {
+				throw new InvalidObjectException("Solutions without words nor table");
+			}
+			else {
+				for(int i=0; i<length; i++) {
+					byte cell = paths[position + i];
+					letters[i] = table.getLetter(cell >> 4 & 0xF, cell & 0xF);
+				}
+				word = new String(letters, 0, length);
+			}
+			solutions.add(new Solution(word, paths, position, length));
+			position += length;
+		}
+	}
+	
+	/**
+	 * <b>Index of the solutions of a puzzle, mapping each word to its ordinal 
+	 * and each ordinal to the first solution with that word. An index is immutable.</b><br>
+	 */
+	public static class SolutionIndex
+	extends AbstractMap<String,Solution> {
+		
+		private final Map<String,Integer> ordinals;
+		private final Solution[] indexed;
+		
+		SolutionIndex(List<Solution> solutions) {
+			int size = solutions == null ? 0 : solutions.size();
+			Map<String,Integer> map = new HashMap<>(2 * size);
+			List<Solution> list = new ArrayList<>(size);
+			for(int i=0; i<size; i++) {
+				Solution solution = solutions.get(i);
+				if(map.putIfAbsent(solution.getWord(), list.size()) == null)
+					list.add(solution);
+			}
+			this.ordinals = Collections.unmodifiableMap(map);
+			this.indexed = list.toArray(new Solution[list.size()]);
+		}
+		
+		/**
+		 * Ordinal of a word in this index
+		 * @param word - to check
+		 * @return ordinal, from 0 to size, or -1 if word is not indexed
+		 */
+		public int getOrdinal(java.lang.String word) {
+			Integer ordinal = ordinals.get(word);
+			return ordinal == null ? -1 : ordinal;
+		}
+		
+		/**
+		 * Solution with a given ordinal in this index
+		 * @param ordinal - from 0 to size
+		 * @return solution
+		 */
+		public Solution getSolution(int ordinal) {
+			return indexed[ordinal];
+		}
+		
+		@Override
+		public Solution get(Object word) {
+			Integer ordinal = ordinals.get(word);
+			return ordinal == null ? null : indexed[ordinal];
+		}
+		
+		@Override
+		public boolean containsKey(Object word) {
+			return ordinals.containsKey(word);
+		}
+		
+		@Override
+		public int size() {
+			return indexed.length;
+		}
+		
+		@Override
+		public Set<Map.Entry<String,Solution>> entrySet() {
+			return new AbstractSet<Map.Entry<String,Solution>>() {
+				
+				@Override
+				public Iterator<Map.Entry<String,Solution>> iterator() {
+					return new Iterator<Map.Entry<String,Solution>>() {
+						
+						private int ordinal = 0;
+						
+						@Override
+						public boolean hasNext() {
+							return ordinal < indexed.length;
+						}
+						
+						@Override
+						public Map.Entry<String,Solution> next() {
+							if(!hasNext()) throw new NoSuchElementException();
+							Solution solution = indexed[ordinal++];
+							return new AbstractMap.SimpleImmutableEntry<>(solution.getWord(), solution);
+						}
+					};
+				}
+				
+				@Override
+				public int size() {
+					return indexed.length;
+				}
+			};
+		}
+	}
+	
+	/**
+	 * <b>A solution of a puzzle: a word and the path of cells where it is found, in traversal order. 
+	 * The path is encoded with a byte per cell, holding its row in the high nibble and its column 
+	 * in the low nibble, and many solutions may share the same byte array, each using a slice of it. 
+	 * The cells of the path are only created when requested, taking their letters from the word.</b><br>
+	 */
 	public static class Solution
 	extends java.lang.Object
 	implements java.io.Serializable {
@@ -46,16 +292,70 @@ public class Puzzle extends java.lang.Object implements Serializable {
 		private static final long serialVersionUID = 1L;
 		
 		java.lang.String word;
-		java.util.List<Table.Cell> cells;
+		byte[] path;
+		int offset;
+		int length;
+		transient volatile java.util.List<Table.Cell> cells;
 		
 		public Solution() {}
 		
+		/**
+		 * Create a solution with the given cells, in traversal order
+		 * @param word - of solution
+		 * @param cells - where the word is found
+		 */
 		public Solution(java.lang.String word,
                 		java.util.List<Table.Cell> cells) {
 			this.word = word;
+			this.path = new byte[cells.size()];
+			this.offset = 0;
+			this.length = cells.size();
+			for(int i=0; i<cells.size(); i++)
+				this.path[i] = encode(cells.get(i).getRow(), cells.get(i).getColumn());
 			this.cells = cells;
 		}
 		
+		/**
+		 * Create a solution with an encoded path, a slice of a byte array that may be shared with other solutions. 
+		 * The path has a byte per letter of the word.
+		 * @param word - of solution
+		 * @param path - encoded cells, in traversal order
+		 * @param offset - of the first cell of this solution in path
+		 */
+		public Solution(java.lang.String word,
+						byte[] path,
+						int offset) {
+			this(word, path, offset, word.length());
+		}
+		
+		/**
+		 * Create a solution with an encoded path of given length, a slice of a byte array 
+		 * that may be shared with other solutions.
+		 * @param word - of solution
+		 * @param path - encoded cells, in traversal order
+		 * @param offset - of the first cell of this solution in path
+		 * @param length - number of cells of this solution
+		 */
+		public Solution(java.lang.String word,
+						byte[] path,
+						int offset,
+						int length) {
+			this.word = word;
+			this.path = path;
+			this.offset = offset;
+			this.length = length;
+		}
+		
+		/**
+		 * Encode the position of a cell in a byte
+		 * @param row - of cell, up to 15
+		 * @param column - of cell, up to 15
+		 * @return encoded cell
+		 */
+		public static byte encode(int row, int column) {
+			return (byte) (row << 4 | column);
+		}
+		
 		public java.lang.String getWord() {
 			return this.word;
 		}
@@ -71,8 +371,31 @@ public class Puzzle extends java.lang.Object implements Serializable {
 			return resultado;
 		}
 		
+		/**
+		 * Encoded path of this solution, a byte per cell in traversal order
+		 * @return copy of path
+		 */
+		public byte[] getPath() {
+			if(this.path == null) return new byte[0];
+			return java.util.Arrays.copyOfRange(this.path, this.offset, this.offset + this.length);
+		}
+		
+		/**
+		 * Cells of this solution in traversal order, created when first requested
+		 * @return list of cells
+		 */
 		public java.util.List<Table.Cell> getCells() {
-			return this.cells;
+			java.util.List<Table.Cell> list = this.cells;
+			if(list == null && this.path != null) {
+				list = new java.util.ArrayList<>(this.length);
+				for(int i=0; i<this.length; i++) {
+					byte cell = this.path[this.offset + i];
+					char letter = i < this.word.length() ? this.word.charAt(i) : '\0';
+					list.add(new Table.Cell(cell >> 4 & 0xF, cell & 0xF, letter));
+				}
+				this.cells = list = Collections.unmodifiableList(list);
+			}
+			return list;
 		}
 		
 	}
@@ -0,0 +1,145 @@
+package wwwordz.shared;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <b>An immutable snapshot of a puzzle, encoded once when it is created and shared by all clients. 
+ * Puzzles are encoded with the wire codec.
+ * The encoded puzzle can be written to a channel as is, hence serving a puzzle to many clients
+ * costs a memory copy per client rather than encoding the puzzle again for each of them.
+ * A compressed variant (gzip) of the encoded puzzle is created when first requested.
+ * Changes to the puzzle after the snapshot was taken are not reflected in it,
+ * and the puzzles decoded from a snapshot are copies.</b><br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class PuzzleSnapshot
+extends java.lang.Object {
+
+	private final byte[] encoded;
+	private volatile byte[] compressed = null;
+	private final long seed;
+	private final int size;
+	private final int solutionCount;
+
+	/**
+	 * Take a snapshot of a puzzle, encoding it
+	 * @param puzzle - to encode
+	 */
+	public PuzzleSnapshot(Puzzle puzzle) {
+		this.encoded = WireCodec.encode(puzzle);
+		this.seed = puzzle.getSeed();
+		this.size = puzzle.getTable() == null ? 0 : puzzle.getTable().getSize();
+		this.solutionCount = puzzle.getSolutions() == null ? 0 : puzzle.getSolutions().size();
+	}
+
+	/**
+	 * Decode a copy of the puzzle in this snapshot
+	 * @return puzzle
+	 */
+	public Puzzle getPuzzle() {
+		return WireCodec.decodePuzzle(encoded);
+	}
+
+	/**
+	 * Encoded puzzle, as a read-only buffer over the bytes shared by all clients
+	 * @return buffer positioned at the start of the encoded puzzle
+	 */
+	public ByteBuffer getEncoded() {
+		return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Compressed encoded puzzle, as a read-only buffer. The compressed bytes are created when first requested.
+	 * @return buffer positioned at the start of the compressed puzzle
+	 */
+	public ByteBuffer getCompressed() {
+		return ByteBuffer.wrap(compressed()).asReadOnlyBuffer();
+	}
+
+	private byte[] compressed() {
+		byte[] bytes = this.compressed;
+		if(bytes == null) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(encoded.length / 2);
+			try(GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+				out.write(encoded);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			this.compressed = bytes = buffer.toByteArray();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Write the encoded puzzle to a channel
+	 * @param channel - where the puzzle is written
+	 * @return number of bytes written
+	 * @throws IOException - if the channel can't be written
+	 */
+	public long writeTo(WritableByteChannel channel) throws IOException {
+		return write(getEncoded(), channel);
+	}
+
+	/**
+	 * Write the compressed puzzle to a channel
+	 * @param channel - where the puzzle is written
+	 * @return number of bytes written
+	 * @throws IOException - if the channel can't be written
+	 */
+	public long writeCompressedTo(WritableByteChannel channel) throws IOException {
+		return write(getCompressed(), channel);
+	}
+
+	private static long write(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+		long written = 0;
+		while(buffer.hasRemaining())
+			written += channel.write(buffer);
+		return written;
+	}
+
+	/**
+	 * Length of the encoded puzzle
+	 * @return length in bytes
+	 */
+	public int getLength() {
+		return encoded.length;
+	}
+
+	/**
+	 * Length of the compressed puzzle
+	 * @return length in bytes
+	 */
+	public int getCompressedLength() {
+		return compressed().length;
+	}
+
+	/**
+	 * Seed of the puzzle in this snapshot
+	 * @return seed
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Size of the table of the puzzle in this snapshot
+	 * @return number of rows and columns
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Number of solutions of the puzzle in this snapshot
+	 * @return number of solutions
+	 */
+	public int getSolutionCount() {
+		return this.solutionCount;
+	}
+}
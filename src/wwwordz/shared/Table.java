@@ -4,7 +4,15 @@ import java.util.*;
 
 /**
  * <b>A table composed of a collection of cells indexed 
- * by row and column positions.</b><br>
+ * by row and column positions. Tables are square and their size 
+ * is set when created, by default TABLE_SIZE. 
+ * Letters are kept in a char array in row-major order, and the cells of each index 
+ * are its row and column in that order, counting from 1. 
+ * The neighbors of each cell index are precomputed once for each size and shared by all tables, 
+ * hence the index based methods don't create objects. 
+ * Cells are views of a position in the table, created when first requested. 
+ * The letters of a table are identified by a packed fingerprint, 
+ * and tables with the same size and letters are equal.</b><br>
  * @author Rúben Lôpo, Rui Ramos
  */
 public class Table
@@ -14,36 +22,52 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 	/**
 	 * 
 	 */
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
 	public static final int TABLE_SIZE = 4;
-	Cell[][] table = new Cell[TABLE_SIZE+2][TABLE_SIZE+2];
+	/**
+	 * Largest size with precomputed neighbors
+	 */
+	static final int MAXIMUM_CACHED_SIZE = 15;
+	private static final int[][][] ADJACENCY = new int[MAXIMUM_CACHED_SIZE + 1][][];
+	
+	final int size;
+	final char[] letters;
+	private int emptyCount;
+	private transient Cell[] cells;
 	
 	/**
 	 * <b>Create a table with empty cells.</b><br>
 	 */
 	public Table() {
-		for(int i=0; i<=TABLE_SIZE+1; i++) {
-			for(int j=0; j<=TABLE_SIZE+1; j++) {
-				table[i][j] = new Cell(i, j);
-			}
-		}
+		this(TABLE_SIZE);
+	}
+	
+	/**
+	 * <b>Create a table of given size with empty cells.</b><br>
+	 * @param size - number of rows and columns
+	 */
+	public Table(int size) {
+		this.size = size;
+		this.letters = new char[size * size];
+		this.emptyCount = letters.length;
 	}
 	
 	/**
-	 * <b>Create a table with given data.</b><br>
+	 * <b>Create a table with given data. The size of the table is the number of rows in data.</b><br>
 	 */
 	public Table(String[] data) {
-		int rows = 1;
-		int cols = 1;
-		for(String word : data) {
-			for(int i=0; i<word.length(); i++) {
-				char let = word.charAt(i);
-				table[rows][cols] = new Cell(rows, cols, let);
-				cols++;
-			}
-			rows++;
-			cols = 1;
-		}
+		this(data.length);
+		for(int row=0; row<size; row++) 
+			for(int column=0; column<Math.min(size, data[row].length()); column++) 
+				setLetter(row * size + column, data[row].charAt(column));
+	}
+	
+	/**
+	 * Number of rows (and columns) of this table
+	 * @return size
+	 */
+	public int getSize() {
+		return this.size;
 	}
 	
 	@Override
@@ -52,26 +76,120 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 	}
 	
 	/**
-	 * Set a letter at a given row and column
-	 * @param row - to set
-	 * @param column - to set
+	 * Neighbors of each cell index in tables of given size, computed once for each size
+	 * @param size - of table
+	 * @return indexes of neighbors of each cell index
+	 */
+	static int[][] adjacency(int size) {
+		if(size > MAXIMUM_CACHED_SIZE) return computeAdjacency(size);
+		synchronized(ADJACENCY) {
+			if(ADJACENCY[size] == null) ADJACENCY[size] = computeAdjacency(size);
+			return ADJACENCY[size];
+		}
+	}
+	
+	private static int[][] computeAdjacency(int size) {
+		int[][] adjacency = new int[size * size][];
+		int[] buffer = new int[8];
+		for(int row=0; row<size; row++) 
+			for(int column=0; column<size; column++) {
+				int count = 0;
+				for(int i=Math.max(0, row-1); i<=Math.min(size-1, row+1); i++) 
+					for(int j=Math.max(0, column-1); j<=Math.min(size-1, column+1); j++) 
+						if(i != row || j != column) 
+							buffer[count++] = i * size + j;
+				adjacency[row * size + column] = Arrays.copyOf(buffer, count);
+			}
+		return adjacency;
+	}
+	
+	/**
+	 * Index of the cell with given row and column, in row-major order
+	 * @param row - of cell, from 1 to size
+	 * @param column - of cell, from 1 to size
+	 * @return index of cell
+	 */
+	public int index(int row,
+					 int column) {
+		return (row - 1) * size + column - 1;
+	}
+	
+	/**
+	 * Index of the cell with given row and column, checking that they are within this table
+	 * @param row - of cell, from 1 to size
+	 * @param column - of cell, from 1 to size
+	 * @return index of cell
+	 * @throws IndexOutOfBoundsException - if row or column is not from 1 to size
+	 */
+	private int checkedIndex(int row,
+							 int column) {
+		if(row < 1 || row > size || column < 1 || column > size)
+			throw new IndexOutOfBoundsException("Cell ("+row+","+column+") outside table of size "+size);
+		return index(row, column);
+	}
+	
+	/**
+	 * Get the letter at a given row and column
+	 * @param row - from 1 to size
+	 * @param column - from 1 to size
 	 * @return letter in given position
+	 * @throws IndexOutOfBoundsException - if row or column is not from 1 to size
 	 */
 	public char getLetter(int row,
                           int column) {
-		return table[row][column].getLetter();
+		return letters[checkedIndex(row, column)];
+	}
+	
+	/**
+	 * Letter of the cell with given index
+	 * @param index - of cell
+	 * @return letter or '\0' if the cell is empty
+	 */
+	public char getLetter(int index) {
+		return letters[index];
 	}
 	
 	/**
 	 * Set a letter at a given row and column
-	 * @param row - to set
-	 * @param column - to set
+	 * @param row - from 1 to size
+	 * @param column - from 1 to size
 	 * @param letter - to set
+	 * @throws IndexOutOfBoundsException - if row or column is not from 1 to size
 	 */
 	public void setLetter(int row,
             			  int column,
             			  char letter) {
-		table[row][column].setLetter(letter);
+		setLetter(checkedIndex(row, column), letter);
+	}
+	
+	/**
+	 * Set the letter of the cell with given index
+	 * @param index - of cell
+	 * @param letter - to set, or '\0' to empty the cell
+	 */
+	public void setLetter(int index,
+						  char letter) {
+		if(letters[index] == '\0') emptyCount--;
+		if(letter == '\0') emptyCount++;
+		letters[index] = letter;
+	}
+	
+	/**
+	 * Number of empty cells in this table, kept as letters are set
+	 * @return number of empty cells
+	 */
+	public int getEmptyCount() {
+		return this.emptyCount;
+	}
+	
+	/**
+	 * Indexes of the neighbors of the cell with given index. 
+	 * The array is shared by all tables of this size and must not be modified.
+	 * @param index - of cell
+	 * @return indexes of neighbors
+	 */
+	public int[] getNeighbors(int index) {
+		return adjacency(size)[index];
 	}
 	
 	/**
@@ -79,12 +197,9 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 	 * @return list of cells
 	 */
 	public List<Table.Cell> getEmptyCells() {
-		List<Table.Cell> list = new ArrayList<Table.Cell> (); 
-		for(int i=1; i<=TABLE_SIZE; i++) {
-			for(int j=1; j<=TABLE_SIZE; j++) {
-				if(table[i][j].isEmpty()) list.add(table[i][j]);
-			}
-		}
+		List<Table.Cell> list = new ArrayList<Table.Cell> (emptyCount); 
+		for(int index=0; index<letters.length && list.size()<emptyCount; index++) 
+			if(letters[index] == '\0') list.add(getCell(index));
 		return list;
 	}
 	
@@ -94,47 +209,58 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 	 * @return list of Table.Cell
 	 */
 	public List<Table.Cell> getNeighbors(Table.Cell cell) {
-		List<Table.Cell> list = new ArrayList<Table.Cell> (); 		
-		for(int i=cell.row-1; i<=cell.row+1; i++) {
-			for(int j=cell.column-1; j<=cell.column+1; j++) {
-				if(i==cell.row && j==cell.column) continue;
-				if(i!=0 && j!=0 && i!=TABLE_SIZE+1 && j!=TABLE_SIZE+1) {
-					list.add(this.getCell(i, j));
-				}
-			}
-		}
+		int[] neighbors = getNeighbors(index(cell.row, cell.column));
+		List<Table.Cell> list = new ArrayList<Table.Cell> (neighbors.length); 		
+		for(int neighbor: neighbors) 
+			list.add(getCell(neighbor));
 		return list;
 	}
 	
 	/**
 	 * Get cell of given row and column
-	 * @param row - of cell
-	 * @param column - of cell
+	 * @param row - of cell, from 1 to size
+	 * @param column - of cell, from 1 to size
 	 * @return cell in given position
+	 * @throws IndexOutOfBoundsException - if row or column is not from 1 to size
 	 */
 	public Table.Cell getCell(int row,
             				  int column) {
-		return this.table[row][column];
+		return getCell(checkedIndex(row, column));
+	}
+	
+	/**
+	 * Cell with given index, a view of this table created when first requested
+	 * @param index - of cell
+	 * @return cell
+	 */
+	public Table.Cell getCell(int index) {
+		if(cells == null) cells = new Cell[letters.length];
+		Cell cell = cells[index];
+		if(cell == null) cell = cells[index] = new Cell(this, index / size + 1, index % size + 1);
+		return cell;
 	}
 	
 	@Override
 	public String toString() {
-		String aux = "";
-		for(int i=1; i<=TABLE_SIZE; i++) {
-			for(int j=1; j<=TABLE_SIZE; j++) {
-				aux += table[i][j].toString();
-			}
-			aux += "\n";
+		StringBuilder aux = new StringBuilder();
+		for(int index=0; index<letters.length; index++) {
+			aux.append(letters[index]);
+			if(index % size == size - 1) aux.append("\n");
 		}
-		return aux;
+		return aux.toString();
+	}
+	
+	/**
+	 * Fingerprint of the letters currently in this table
+	 * @return fingerprint
+	 */
+	public Table.Fingerprint getFingerprint() {
+		return new Fingerprint(this);
 	}
 	
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + Arrays.deepHashCode(table);
-		return result;
+		return 31 * size + Arrays.hashCode(letters);
 	}
 	
 	@Override
@@ -146,13 +272,101 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 		if (getClass() != obj.getClass())
 			return false;
 		Table other = (Table) obj;
-		if (!Arrays.deepEquals(table, other.table))
-			return false;
-		return true;
+		return size == other.size && Arrays.equals(letters, other.letters);
 	}
 	
 	/**
-	 * <b>A cell in the enclosing table</b>
+	 * <b>Fingerprint of the letters in a table, packed in row-major order in an array of longs. 
+	 * Empty cells and letters from A to Z take 5 bits each, hence 12 cells fit in each long 
+	 * and a 4 by 4 table takes 2 longs. Tables with other letters take 16 bits per cell. 
+	 * Fingerprints are equal only if tables have the same size and letters, 
+	 * hence they can be used as keys of tables that may later change.</b><br>
+	 */
+	public static class Fingerprint
+	extends java.lang.Object {
+		
+		static final int NARROW_BITS = 5;
+		static final int WIDE_BITS = 16;
+		
+		private final int size;
+		private final int bits;
+		private final long[] packed;
+		private final int hash;
+		
+		/**
+		 * Create the fingerprint of the current letters of a table
+		 * @param table - to fingerprint
+		 */
+		Fingerprint(Table table) {
+			this.size = table.size;
+			this.bits = isNarrow(table) ? NARROW_BITS : WIDE_BITS;
+			int perLong = Long.SIZE / bits;
+			this.packed = new long[(size * size + perLong - 1) / perLong];
+			for(int cell=0; cell<table.letters.length; cell++) 
+				packed[cell / perLong] |= (long) code(table.letters[cell]) << (bits * (cell % perLong));
+			
+			long mixed = size * 0x9E3779B97F4A7C15L;
+			for(long word: packed) 
+				mixed = Long.rotateLeft(mixed ^ word, 27) * 0x9E3779B97F4A7C15L;
+			this.hash = (int) (mixed ^ (mixed >>> 32));
+		}
+		
+		private static boolean isNarrow(Table table) {
+			for(char letter: table.letters) 
+				if(letter != '\0' && (letter < 'A' || letter > 'Z')) return false;
+			return true;
+		}
+		
+		private int code(char letter) {
+			if(bits == WIDE_BITS) return letter;
+			return letter == '\0' ? 0 : letter - 'A' + 1;
+		}
+		
+		/**
+		 * Size of the table of this fingerprint
+		 * @return number of rows and columns
+		 */
+		public int getSize() {
+			return this.size;
+		}
+		
+		/**
+		 * Packed letters of this fingerprint
+		 * @return copy of packed letters
+		 */
+		public long[] toLongArray() {
+			return packed.clone();
+		}
+		
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Fingerprint other = (Fingerprint) obj;
+			return size == other.size && bits == other.bits && Arrays.equals(packed, other.packed);
+		}
+		
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			for(int i=packed.length-1; i>=0; i--) 
+				builder.append(String.format("%016x", packed[i]));
+			return builder.toString();
+		}
+	}
+	
+	/**
+	 * <b>A cell in the enclosing table, a view of the letter in its position. 
+	 * Cells created without a table, such as those in solutions, keep their own letter.</b>
 	 */
 	public static class Cell
 	extends java.lang.Object
@@ -165,6 +379,7 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 		private int row;
 		private int column;
 		private char letter;
+		private transient Table table;
 		
 		Cell() {}
 		
@@ -194,12 +409,26 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 			this.letter = '\0';
 		}
 		
+		/**
+		 * Create a view of the cell of a table at the given row and column
+		 * @param table - with letters
+		 * @param row - of cell
+		 * @param column - of cell
+		 */
+		Cell(Table table,
+			 int row,
+			 int column) {
+			this.table = table;
+			this.row = row;
+			this.column = column;
+		}
+		
 		/**
 		 * Check if cell is empty
 		 * @return true if empty; false otherwise
 		 */
 		public boolean isEmpty() {
-			if(this.letter=='\0') {
+			if(getLetter()=='\0') {
 				return true;
 			}
 			return false;
@@ -207,7 +436,7 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 		
 		@Override
 		public String toString() {
-			return(Character.toString(this.letter));
+			return(Character.toString(getLetter()));
 		}
 		
 		/**
@@ -215,7 +444,8 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 		 * @param letter - to set
 		 */
 		public void setLetter(char letter) {
-			this.letter = letter;
+			if(table == null) this.letter = letter;
+			else table.setLetter(row, column, letter);
 		}
 		
 		/**
@@ -223,7 +453,8 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 		 * @return letter in cell
 		 */
 		public char getLetter() {
-			return this.letter;
+			if(table == null) return this.letter;
+			return table.getLetter(row, column);
 		}
 		
 		/**
@@ -242,12 +473,20 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 			return this.column;
 		}
 		
+		/**
+		 * A view is serialized as a cell with its current letter
+		 * @return cell to serialize
+		 */
+		private Object writeReplace() {
+			return table == null ? this : new Cell(row, column, getLetter());
+		}
+		
 		@Override
 		public int hashCode() {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + column;
-			result = prime * result + letter;
+			result = prime * result + getLetter();
 			result = prime * result + row;
 			return result;
 		}
@@ -263,7 +502,7 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 			Cell other = (Cell) obj;
 			if (column != other.column)
 				return false;
-			if (letter != other.letter)
+			if (getLetter() != other.getLetter())
 				return false;
 			if (row != other.row)
 				return false;
@@ -272,45 +511,32 @@ implements java.lang.Iterable<Table.Cell>, java.io.Serializable {
 	}
 	
 	/**
-	 * <b>An iterator over cells in this table.</b>
+	 * <b>An iterator over cells in this table, in row-major order.</b>
 	 */	
 	private class CellIterator
 	extends java.lang.Object
 	implements java.util.Iterator<Table.Cell> {
 		
-		private int row;
-		private int column;
+		private int index;
 		
 		CellIterator() {
-			this.row = 1;
-			this.column = 0;
+			this.index = 0;
 		}
 		
 		@Override
 		public boolean hasNext() {
-			if(this.row==TABLE_SIZE && this.column==TABLE_SIZE) return false;
-			return true;
+			return this.index < letters.length;
 		}
 		
 		@Override
 		public Table.Cell next() {
-			
-			if(this.column!=TABLE_SIZE) {
-				Cell aux = getCell(this.row, this.column+1);
-				this.column++;
-				return aux;
-			}
-			
-			Cell aux = getCell(this.row+1, 1);
-			this.row++;
-			this.column = 1;
-			return aux;
-			
+			if(!hasNext()) throw new NoSuchElementException();
+			return getCell(this.index++);
 		}
 		
 		@Override
 		public void remove() {
-			table[this.row][this.column] = new Cell(this.row, this.column);
+			setLetter(this.index - 1, '\0');
 		}
 	}
 	
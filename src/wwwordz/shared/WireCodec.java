@@ -0,0 +1,371 @@
+package wwwordz.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <b>A compact binary codec for the types shared with clients: puzzles, tables and rankings.
+ * Each message starts with the codec version and the type of its content.
+ * Integers are encoded as varints (7 bits per byte, zigzag encoded when they may be negative),
+ * the letters of a table are packed with 5 bits per cell (16 bits if some letter is not from A to Z),
+ * solutions are encoded as their byte paths and their words are decoded from the letters of the table, 
+ * unless there is no table or the path doesn't have a cell per letter, in which case the word follows the path.
+ * Strings are encoded in UTF-8, preceded by their length.
+ * Decoding a message of another version or type, or a malformed or truncated message, 
+ * raises an IllegalArgumentException.</b><br>
+ * <br>
+ * Puzzle: seed (8 bytes) | dictionary version (8 bytes) | table | solutions + 1 (varint) | [length * 2 + spelled (varint) | path | word if spelled]*<br>
+ * Table: size + 1 (varint, 0 if there is no table) | packing (byte) | letters<br>
+ * Ranking: ranks (varint) | [nick | points (zigzag) | accumulated (zigzag)]*<br>
+ * @author Rúben Lôpo, Rui Ramos
+ */
+public class WireCodec
+extends java.lang.Object {
+
+	/**
+	 * Version of the encoding
+	 */
+	public static final int VERSION = 2;
+	static final int PUZZLE = 1;
+	static final int TABLE = 2;
+	static final int RANKING = 3;
+	static final int NARROW = 0;
+	static final int WIDE = 1;
+	static final int LETTER_BITS = 5;
+
+	private WireCodec() {}
+
+	/**
+	 * Encode a puzzle
+	 * @param puzzle - to encode
+	 * @return encoded puzzle
+	 */
+	public static byte[] encode(Puzzle puzzle) {
+		Writer out = new Writer(64);
+		out.header(PUZZLE);
+		out.fixed(puzzle.getSeed());
+		out.fixed(puzzle.getDictionaryVersion());
+		table(puzzle.getTable(), out);
+		List<Puzzle.Solution> solutions = puzzle.getSolutions();
+		if(solutions == null) {
+			out.varint(0);
+		}
+		else {
+			out.varint(solutions.size() + 1);
+			for(Puzzle.Solution solution : solutions) {
+				boolean spelled = puzzle.getTable() == null || solution.length != solution.word.length();
+				out.varint(solution.length << 1 | (spelled ? 1 : 0));
+				out.bytes(solution.path, solution.offset, solution.length);
+				if(spelled) out.string(solution.word);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode a puzzle. Solutions of the decoded puzzle share a copy of their paths.
+	 * @param data - encoded puzzle
+	 * @return puzzle
+	 * @throws IllegalArgumentException - if data is not a valid encoded puzzle
+	 */
+	public static Puzzle decodePuzzle(byte[] data) {
+		Reader in = new Reader(data);
+		in.header(PUZZLE);
+		Puzzle puzzle = new Puzzle();
+		puzzle.setSeed(in.fixed());
+		puzzle.setDictionaryVersion(in.fixed());
+		Table table = table(in);
+		puzzle.setTable(table);
+		int count = in.count() - 1;
+		if(count >= 0) {
+			if(count > in.remaining()) throw new IllegalArgumentException("Truncated message");
+			int start = in.position;
+			byte[] paths = Arrays.copyOfRange(data, start, data.length);
+			List<Puzzle.Solution> solutions = new ArrayList<>(count);
+			int cells = table == null ? 0 : table.letters.length;
+			char[] letters = new char[cells];
+			for(int i=0; i<count; i++) {
+				int header = in.varint();
+				int length = header >>> 1;
+				int offset = in.position - start;
+				in.skip(length);
+				String word;
+				if((header & 1) != 0) {
+					word = in.string();
+					if(word == null) throw new IllegalArgumentException("Missing word of solution");
+				}
+				else {
+					if(length > cells) throw new IllegalArgumentException("Path longer than table");
+					for(int j=0; j<length; j++)
+						letters[j] = letter(table, paths[offset + j]);
+					word = new String(letters, 0, length);
+				}
+				solutions.add(new Puzzle.Solution(word, paths, offset, length));
+			}
+			puzzle.setSolutions(solutions);
+		}
+		return puzzle;
+	}
+
+	/**
+	 * Encode a table
+	 * @param table - to encode
+	 * @return encoded table
+	 */
+	public static byte[] encode(Table table) {
+		Writer out = new Writer(16);
+		out.header(TABLE);
+		table(table, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode a table
+	 * @param data - encoded table
+	 * @return table, or null if a null table was encoded
+	 * @throws IllegalArgumentException - if data is not a valid encoded table
+	 */
+	public static Table decodeTable(byte[] data) {
+		Reader in = new Reader(data);
+		in.header(TABLE);
+		return table(in);
+	}
+
+	/**
+	 * Encode a ranking
+	 * @param ranking - list of ranks to encode
+	 * @return encoded ranking
+	 */
+	public static byte[] encode(List<Rank> ranking) {
+		Writer out = new Writer(16 * ranking.size() + 4);
+		out.header(RANKING);
+		out.varint(ranking.size());
+		for(Rank rank : ranking) {
+			out.string(rank.getNick());
+			out.zigzag(rank.getPoints());
+			out.zigzag(rank.getAccumulated());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decode a ranking
+	 * @param data - encoded ranking
+	 * @return list of ranks
+	 * @throws IllegalArgumentException - if data is not a valid encoded ranking
+	 */
+	public static List<Rank> decodeRanking(byte[] data) {
+		Reader in = new Reader(data);
+		in.header(RANKING);
+		int count = in.count();
+		if(count > in.remaining()) throw new IllegalArgumentException("Truncated message");
+		List<Rank> ranking = new ArrayList<>(count);
+		for(int i=0; i<count; i++)
+			ranking.add(new Rank(in.string(), in.zigzag(), in.zigzag()));
+		return ranking;
+	}
+
+	private static char letter(Table table, byte cell) {
+		int row = cell >> 4 & 0xF, column = cell & 0xF;
+		if(row < 1 || row > table.size || column < 1 || column > table.size)
+			throw new IllegalArgumentException("Path outside table");
+		return table.letters[table.index(row, column)];
+	}
+
+	private static void table(Table table, Writer out) {
+		if(table == null) {
+			out.varint(0);
+			return;
+		}
+		out.varint(table.size + 1);
+		if(isNarrow(table)) {
+			out.write(NARROW);
+			int accumulator = 0, bits = 0;
+			for(char letter : table.letters) {
+				accumulator = accumulator << LETTER_BITS | (letter == '\0' ? 0 : letter - 'A' + 1);
+				bits += LETTER_BITS;
+				if(bits >= 8) {
+					bits -= 8;
+					out.write(accumulator >>> bits);
+				}
+			}
+			if(bits > 0) out.write(accumulator << (8 - bits));
+		}
+		else {
+			out.write(WIDE);
+			for(char letter : table.letters)
+				out.varint(letter);
+		}
+	}
+
+	private static Table table(Reader in) {
+		int size = in.count() - 1;
+		if(size < 0) return null;
+		long cells = (long) size * size;
+		if(cells * LETTER_BITS > 8L * in.remaining()) throw new IllegalArgumentException("Truncated message");
+		Table table = new Table(size);
+		switch(in.read()) {
+		case NARROW:
+			int accumulator = 0, bits = 0;
+			for(int cell=0; cell<cells; cell++) {
+				if(bits < LETTER_BITS) {
+					accumulator = accumulator << 8 | in.read();
+					bits += 8;
+				}
+				bits -= LETTER_BITS;
+				int code = accumulator >>> bits & ((1 << LETTER_BITS) - 1);
+				if(code != 0) table.setLetter(cell, (char) ('A' + code - 1));
+			}
+			break;
+		case WIDE:
+			for(int cell=0; cell<cells; cell++)
+				table.setLetter(cell, (char) in.varint());
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown table packing");
+		}
+		return table;
+	}
+
+	private static boolean isNarrow(Table table) {
+		for(char letter : table.letters)
+			if(letter != '\0' && (letter < 'A' || letter > 'Z')) return false;
+		return true;
+	}
+
+	/**
+	 * <b>Writes bytes to a growing array.</b><br>
+	 */
+	private static class Writer
+	extends java.lang.Object {
+
+		private byte[] buffer;
+		private int size = 0;
+
+		Writer(int capacity) {
+			this.buffer = new byte[capacity];
+		}
+
+		void write(int value) {
+			if(size == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+			buffer[size++] = (byte) value;
+		}
+
+		void bytes(byte[] bytes, int offset, int length) {
+			if(size + length > buffer.length)
+				buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, size + length));
+			System.arraycopy(bytes, offset, buffer, size, length);
+			size += length;
+		}
+
+		void header(int type) {
+			write(VERSION);
+			write(type);
+		}
+
+		void varint(int value) {
+			while((value & ~0x7F) != 0) {
+				write(value & 0x7F | 0x80);
+				value >>>= 7;
+			}
+			write(value);
+		}
+
+		void zigzag(int value) {
+			varint(value << 1 ^ value >> 31);
+		}
+
+		void fixed(long value) {
+			for(int i=0; i<8; i++)
+				write((int) (value >>> (8 * i)));
+		}
+
+		void string(String value) {
+			if(value == null) {
+				varint(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			varint(bytes.length + 1);
+			bytes(bytes, 0, bytes.length);
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(buffer, size);
+		}
+	}
+
+	/**
+	 * <b>Reads bytes from an array.</b><br>
+	 */
+	private static class Reader
+	extends java.lang.Object {
+
+		private final byte[] data;
+		int position = 0;
+
+		Reader(byte[] data) {
+			this.data = data;
+		}
+
+		int read() {
+			if(position >= data.length) throw new IllegalArgumentException("Truncated message");
+			return data[position++] & 0xFF;
+		}
+
+		int remaining() {
+			return data.length - position;
+		}
+
+		void skip(int length) {
+			if(length > remaining()) throw new IllegalArgumentException("Truncated message");
+			position += length;
+		}
+
+		void header(int type) {
+			int version = read();
+			if(version != VERSION) throw new IllegalArgumentException("Unsupported version "+version);
+			if(read() != type) throw new IllegalArgumentException("Unexpected message type");
+		}
+
+		int varint() {
+			int value = 0;
+			for(int shift=0; shift<32; shift+=7) {
+				int next = read();
+				value |= (next & 0x7F) << shift;
+				if((next & 0x80) == 0) return value;
+			}
+			throw new IllegalArgumentException("Malformed varint");
+		}
+
+		/**
+		 * A varint that can't be negative
+		 */
+		int count() {
+			int value = varint();
+			if(value < 0) throw new IllegalArgumentException("Negative count");
+			return value;
+		}
+
+		int zigzag() {
+			int value = varint();
+			return value >>> 1 ^ -(value & 1);
+		}
+
+		long fixed() {
+			long value = 0;
+			for(int i=0; i<8; i++)
+				value |= (long) read() << (8 * i);
+			return value;
+		}
+
+		String string() {
+			int length = varint() - 1;
+			if(length < 0) return null;
+			skip(length);
+			return new String(data, position - length, length, StandardCharsets.UTF_8);
+		}
+	}
+}
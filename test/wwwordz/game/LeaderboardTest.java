@@ -0,0 +1,144 @@
+package wwwordz.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.TestData;
+import wwwordz.shared.Rank;
+
+@DisplayName("Leaderboard")
+public class LeaderboardTest extends TestData {
+	
+	static final int PLAYERS = 500;
+	static final int UPDATES = 5000;
+	
+	Leaderboard leaderboard;
+	
+	@BeforeEach
+	public void prepare() {
+		leaderboard = new Leaderboard();
+	}
+	
+	/**
+	 * Empty leaderboard and players added without points
+	 */
+	@Test
+	@DisplayName("Add")
+	public void testAdd() {
+		assertEquals(0,leaderboard.size(),"Empty leaderboard");
+		assertTrue(leaderboard.getRanking().isEmpty(),"Empty ranking");
+		assertEquals(-1,leaderboard.snapshot().getPosition(NICK),"Unknown player");
+		
+		leaderboard.add(new Player(NICK, PASSWORD));
+		leaderboard.add(new Player(OTHER_NICK, OTHER_PASSWORD));
+		leaderboard.add(new Player(NICK, PASSWORD));
+		
+		assertEquals(2,leaderboard.size(),"Players added once");
+		Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+		assertEquals(0,snapshot.getPosition(OTHER_NICK),"Same points ordered by nick");
+		assertEquals(1,snapshot.getPosition(NICK),"Same points ordered by nick");
+	}
+	
+	/**
+	 * Random updates compared with a sorted list of ranks
+	 */
+	@Test
+	@DisplayName("Updates")
+	public void testUpdates() {
+		Random random = new Random(42);
+		List<Player> players = new ArrayList<>();
+		Map<String,Integer> points = new HashMap<>();
+		for(int i=0; i<PLAYERS; i++) {
+			Player player = new Player(NICK+i, PASSWORD);
+			players.add(player);
+			leaderboard.add(player);
+			points.put(player.getNick(), 0);
+		}
+		for(int u=0; u<UPDATES; u++) {
+			Player player = players.get(random.nextInt(PLAYERS));
+			int value = random.nextInt(100);
+			leaderboard.update(player, value);
+			points.put(player.getNick(), value);
+		}
+		
+		List<String> expected = new ArrayList<>(points.keySet());
+		expected.sort(Comparator.comparing((String nick) -> -points.get(nick)).thenComparing(nick -> nick));
+		
+		List<Rank> ranking = leaderboard.getRanking();
+		Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+		assertEquals(PLAYERS,leaderboard.size(),"All players");
+		assertEquals(PLAYERS,ranking.size(),"All players ranked");
+		for(int i=0; i<PLAYERS; i++) {
+			String nick = expected.get(i);
+			assertEquals(nick,ranking.get(i).getNick(),"Nick in position");
+			assertEquals((int) points.get(nick),ranking.get(i).getPoints(),"Points in position");
+			assertEquals(i,snapshot.getPosition(nick),"Position of player");
+		}
+		
+		List<Rank> top = leaderboard.getTop(10);
+		assertEquals(10,top.size(),"Top players");
+		for(int i=0; i<top.size(); i++)
+			assertEquals(expected.get(i),top.get(i).getNick(),"Nick in top");
+		assertEquals(PLAYERS,leaderboard.getTop(2*PLAYERS).size(),"Top limited to players");
+		assertTrue(leaderboard.getTop(0).isEmpty(),"No top players");
+	}
+	
+	static final int THREADS = 8;
+	
+	/**
+	 * Concurrent updates of players, each thread updating its own players many times, 
+	 * and a snapshot taken afterwards, unaffected by later updates
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Concurrent updates and snapshot")
+	public void testConcurrentUpdates() throws InterruptedException {
+		List<Player> players = new ArrayList<>();
+		for(int i=0; i<PLAYERS; i++)
+			players.add(new Player(NICK+i, PASSWORD));
+		List<Thread> threads = new ArrayList<>();
+		for(int t=0; t<THREADS; t++) {
+			int first = t;
+			Thread thread = new Thread(() -> {
+				Random random = new Random(first);
+				for(int i=first; i<PLAYERS; i+=THREADS) {
+					leaderboard.add(players.get(i));
+					for(int u=0; u<UPDATES/PLAYERS; u++)
+						leaderboard.update(players.get(i), random.nextInt(PLAYERS));
+					leaderboard.update(players.get(i), i);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for(Thread thread: threads)
+			thread.join();
+		
+		Leaderboard.Snapshot snapshot = leaderboard.snapshot();
+		leaderboard.update(players.get(0), PLAYERS);
+		
+		assertEquals(PLAYERS,leaderboard.size(),"All players");
+		assertEquals(PLAYERS,snapshot.getRanking().size(),"All players in snapshot");
+		for(int position=0; position<PLAYERS; position++) {
+			int i = PLAYERS - 1 - position;
+			assertEquals(NICK+i,snapshot.getRanking().get(position).getNick(),"Nick in position");
+			assertEquals(i,snapshot.getRanking().get(position).getPoints(),"Last points set");
+			assertEquals(position,snapshot.getPosition(NICK+i),"Position in snapshot");
+		}
+		assertEquals(-1,snapshot.getPosition(OTHER_NICK),"Unknown player");
+		assertEquals(snapshot.getRanking().subList(0, 10),snapshot.getTop(10),"Top of snapshot");
+		assertTrue(snapshot.getTop(-1).isEmpty(),"No top players");
+		assertEquals(0,leaderboard.snapshot().getPosition(NICK+0),"Update after snapshot");
+	}
+}
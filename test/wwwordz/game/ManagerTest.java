@@ -5,11 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -68,6 +77,7 @@ public class ManagerTest extends TestData {
 	 */
 	@Test
 	@DisplayName("Time to next play")
+	@SuppressWarnings("deprecation")
 	public void testGetTimeToNextPlay() throws InterruptedException {
 		long time = manager.timeToNextPlay();
 		assertTrue(time<=STAGE_DURATION,"Less then stage duration");
@@ -82,4 +92,261 @@ public class ManagerTest extends TestData {
 				"Must wait till next round");
 	}
 	
+	/**
+	 * Test rollover of rounds: the next round is created before the current round ends, 
+	 * starts exactly when it ends and is already current shortly after that.
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Rollover")
+	public void testRollover() throws InterruptedException {
+		Round current = manager.getRoom(0).round;
+		Thread.sleep(TimeUnit.NANOSECONDS.toMillis(current.end - System.nanoTime()) + SLACK);
+		
+		Round next = manager.getRoom(0).round;
+		assertNotSame(current,next,"A new round expected");
+		assertEquals(current.end,next.join,"Next round starts when current round ends");
+		assertEquals(Round.Stage.join,next.currentStage(),"Next round in join stage");
+	}
+	
+	/**
+	 * Test rooms of the singleton: one per processor, default room starting now
+	 */
+	@Test
+	@DisplayName("Rooms")
+	public void testRooms() {
+		assertEquals(Runtime.getRuntime().availableProcessors(),manager.getRooms().size(),"A room per processor");
+		assertEquals(manager.getRooms().size(),manager.getLoads().length,"A load per room");
+		for(int id=0; id<manager.getRooms().size(); id++)
+			assertEquals(id,manager.getRoom(id).getId(),"Room identifier");
+	}
+	
+	/**
+	 * Test placement of players in rooms with staggered rounds: 
+	 * with 8 rooms and a stage lasting a quarter of a round, only the first 2 rooms are in join stage.
+	 * Players join the room given by their hash or the next room accepting players, 
+	 * later requests go to that room and players in excess of capacity are rejected.
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Placement")
+	public void testPlacement() throws WWWordzException {
+		int count = 8;
+		ScheduledExecutorService worker = paused();
+		try {
+			placement(new Manager(new VirtualClock(), worker, count, REPEAT * 100), 
+					new Manager(new VirtualClock(), worker, 1, 1));
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+	
+	private void placement(Manager rooms, Manager single) throws WWWordzException {
+		int count = rooms.getRooms().size();
+		assertEquals(Round.Stage.join,rooms.getRoom(0).getRound().currentStage(),"Room 0 in join stage");
+		assertEquals(Round.Stage.join,rooms.getRoom(1).getRound().currentStage(),"Room 1 in join stage");
+		for(int id=2; id<count; id++)
+			assertNotEquals(Round.Stage.join,rooms.getRoom(id).getRound().currentStage(),"Room not in join stage");
+		
+		for(int i=0; i<REPEAT*100; i++) {
+			String nick = NICK + i;
+			rooms.register(nick, PASSWORD);
+			int expected = Math.floorMod(nick.hashCode(), count) == 1 ? 1 : 0;
+			assertEquals(expected,rooms.locate(nick).getId(),"Room of player");
+			assertEquals(expected,rooms.place(nick).getId(),"Same room when registering again");
+		}
+		
+		int[] loads = rooms.getLoads();
+		assertEquals(REPEAT*100,loads[0]+loads[1],"All players in rooms joining");
+		assertTrue(loads[1] > 0,"Some players in room 1");
+		
+		single.register(NICK, PASSWORD);
+		assertThrows(WWWordzException.class, () -> single.register(OTHER_NICK, OTHER_PASSWORD),
+				"Exception expected when all rooms are full");
+		assertThrows(WWWordzException.class, () -> rooms.setPoints(OTHER_NICK, 0),
+				"Exception expected for unregistered player");
+		assertThrows(WWWordzException.class, () -> rooms.getPuzzle(NICK + 0),
+				"Exception expected in join stage");
+	}
+	
+	/**
+	 * Test that requests of a player go to its room, not to the default room: 
+	 * with 8 rooms a player whose home is room 1 joins room 1, 
+	 * gets its puzzle while room 0 is still in join stage, reports its points 
+	 * and finds them in the ranking of room 1.
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Room of player")
+	@SuppressWarnings("deprecation")
+	public void testRoomOfPlayer() throws WWWordzException {
+		int count = 8;
+		VirtualClock clock = new VirtualClock();
+		ScheduledExecutorService worker = paused();
+		try {
+			Manager rooms = new Manager(clock, worker, count, REPEAT);
+			String nick = NICK;
+			for(int i=0; Math.floorMod(nick.hashCode(), count) != 1; i++)
+				nick = NICK + i;
+			Round round = rooms.getRoom(1).getRound();
+			
+			assertEquals(round.getTimetoNextPlay(),rooms.register(nick, PASSWORD),"Time of room 1");
+			assertEquals(round.getTimetoNextPlay(),rooms.timeToNextPlay(nick),"Time of room 1");
+			assertNotEquals(rooms.timeToNextPlay(),rooms.timeToNextPlay(nick),"Default room has another time");
+			
+			clock.advance(rooms.timeToNextPlay(nick));
+			assertSame(round.puzzle,rooms.getPuzzle(nick),"Puzzle of room 1");
+			assertSame(round.snapshot,rooms.getPuzzleSnapshot(nick),"Snapshot of room 1");
+			assertThrows(WWWordzException.class, () -> rooms.getPuzzle(),"Default room still in join stage");
+			
+			clock.advance(STAGE_DURATION);
+			rooms.setPoints(nick, 10);
+			clock.advance(STAGE_DURATION);
+			List<Rank> ranking = rooms.getRanking(nick);
+			assertEquals(1,ranking.size(),"Single player in room 1");
+			assertEquals(nick,ranking.get(0).getNick());
+			assertEquals(10,ranking.get(0).getPoints(),"Points set in room 1");
+			assertEquals(0,rooms.getPosition(nick));
+			assertEquals(0,rooms.getRoom(0).getLoad(),"No players in default room");
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test that a player registered in a room is never registered in another: 
+	 * a player placed away from its full home room registers again in the same room, 
+	 * even after its home room rolls over to a round accepting players
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Single room per player")
+	public void testSingleRoomPerPlayer() throws WWWordzException {
+		int count = 8;
+		VirtualClock clock = new VirtualClock();
+		ScheduledExecutorService worker = paused();
+		try {
+			Manager rooms = new Manager(clock, worker, count, 1);
+			String first = null, second = null;
+			for(int i=0; second == null; i++) {
+				String nick = NICK + i;
+				if(Math.floorMod(nick.hashCode(), count) != 0) continue;
+				if(first == null) first = nick;
+				else second = nick;
+			}
+			rooms.register(first, PASSWORD);
+			rooms.register(second, PASSWORD);
+			assertEquals(0,rooms.locate(first).getId(),"Home room");
+			assertEquals(1,rooms.locate(second).getId(),"Next room, home room is full");
+			
+			rooms.getRoom(0).round = new Round(clock, clock.nanoTime(), 1);
+			assertTrue(rooms.getRoom(0).accepts(),"Home room accepts players after rollover");
+			rooms.register(second, PASSWORD);
+			assertEquals(1,rooms.place(second).getId(),"Room where registered");
+			assertEquals(1,rooms.locate(second).getId(),"Still in room 1");
+			assertEquals(0,rooms.getRoom(0).getLoad(),"Not registered in home room");
+			
+			clock.advance(rooms.timeToNextPlay(second));
+			String nick = second;
+			assertThrows(WWWordzException.class, () -> rooms.register(nick, PASSWORD),
+					"Exception expected when room of player is not in join stage");
+			assertEquals(0,rooms.getRoom(0).getLoad(),"Not registered in home room");
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test that concurrent registrations never exceed the capacity of a room
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Capacity")
+	public void testCapacity() throws InterruptedException {
+		int capacity = REPEAT, threads = REPEAT * 5;
+		ScheduledExecutorService worker = paused();
+		try {
+			Manager single = new Manager(new VirtualClock(), worker, 1, capacity);
+			CountDownLatch start = new CountDownLatch(1);
+			AtomicInteger registered = new AtomicInteger(), rejected = new AtomicInteger();
+			List<Thread> list = new ArrayList<>();
+			for(int i=0; i<threads; i++) {
+				String nick = NICK + "_" + i;
+				Thread thread = new Thread(() -> {
+					try {
+						start.await();
+						single.register(nick, PASSWORD);
+						registered.incrementAndGet();
+					}
+					catch (WWWordzException e) {
+						rejected.incrementAndGet();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+				thread.start();
+				list.add(thread);
+			}
+			start.countDown();
+			for(Thread thread: list)
+				thread.join();
+			
+			assertEquals(capacity,registered.get(),"Registered up to capacity");
+			assertEquals(threads - capacity,rejected.get(),"Others rejected");
+			assertEquals(capacity,single.getLoads()[0],"Load of room");
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test that rounds of rooms are staggered by an equal fraction of the round duration, 
+	 * computed from the durations of the stages, and that the round duration is their sum
+	 */
+	@Test
+	@DisplayName("Stagger")
+	public void testStagger() {
+		int count = 4;
+		long duration = Round.getJoinStageDuration() + Round.getPlayStageDuration() 
+				+ Round.getReportStageDuration() + Round.getRankingStageSuration();
+		long offset = TimeUnit.MILLISECONDS.toNanos(duration) / count;
+		assertEquals(duration,Round.getRoundDuration(),"Round duration is the sum of stages");
+		assertTrue(offset > 0,"Rooms staggered");
+		
+		VirtualClock clock = new VirtualClock();
+		clock.advance(duration);
+		ScheduledExecutorService worker = paused();
+		try {
+			Manager rooms = new Manager(clock, worker, count, REPEAT);
+			for(int id=0; id<count; id++)
+				assertEquals(clock.nanoTime() - id * offset,rooms.getRoom(id).getRound().join,"Start of room "+id);
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+	
+	/**
+	 * A scheduler whose tasks don't run until it is shut down, 
+	 * hence rooms with a virtual clock keep their rounds during a test
+	 * @return scheduler
+	 */
+	static ScheduledExecutorService paused() {
+		ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+		CountDownLatch never = new CountDownLatch(1);
+		worker.execute(() -> {
+			try {
+				never.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		return worker;
+	}
 }
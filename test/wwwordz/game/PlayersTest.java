@@ -3,6 +3,7 @@ package wwwordz.game;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -94,6 +95,8 @@ public class PlayersTest extends TestData {
 	 * 2) second time it already exists (verified)
 	 * 3) with a different password it must fail
 	 * 4) repeat this for many users (with same prefix)
+	 * 5) a null nick is rejected
+	 * 6) a player created without password is verified only without password
 	 */
 	@Test
 	@DisplayName("Verify")
@@ -120,6 +123,13 @@ public class PlayersTest extends TestData {
 				for(int i=0; i< REPEAT; i++)
 					assertTrue(players.verify(NICK+i,PASSWORD),
 							"Player should exist");
+			},
+			() ->
+			assertFalse(players.verify(null,PASSWORD),"Null nick should be rejected"),
+			() -> {
+				assertTrue(players.verify(OTHER_NICK,null),"Player should be created without password");
+				assertTrue(players.verify(OTHER_NICK,null),"Player should exist without password");
+				assertFalse(players.verify(OTHER_NICK,OTHER_PASSWORD),"Player should exist without password");
 			});
 
 	}
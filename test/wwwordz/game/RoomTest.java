@@ -0,0 +1,66 @@
+package wwwordz.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Room")
+public class RoomTest {
+
+	static final long STAGE_DURATION = 100;
+	static final long TIMEOUT = 5000;
+
+	/**
+	 * Set stage durations in round before any tests
+	 */
+	@BeforeAll
+	public static void prepare() {
+		Round.setJoinStageDuration(STAGE_DURATION);
+		Round.setPlayStageDuration(STAGE_DURATION);
+		Round.setReportStageDuration(STAGE_DURATION);
+		Round.setRankingStageSuration(STAGE_DURATION);
+	}
+
+	/**
+	 * Test that rounds keep following each other when creating the next round fails:
+	 * the failure is retried and the next round still starts when the current one ends.
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Rollover after failure")
+	public void testRolloverAfterFailure() throws InterruptedException {
+		VirtualClock virtual = new VirtualClock();
+		Thread tester = Thread.currentThread();
+		AtomicInteger failures = new AtomicInteger(1);
+		Clock clock = () -> {
+			if(Thread.currentThread() != tester && failures.compareAndSet(1, 0))
+				throw new IllegalStateException("Failure expected by test");
+			return virtual.nanoTime();
+		};
+		ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+
+		try {
+			Room room = new Room(0, 1, clock, 0, worker);
+			Round current = room.getRound();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT);
+			while(room.getRound() == current && System.nanoTime() < deadline)
+				Thread.sleep(10);
+
+			Round next = room.getRound();
+			assertEquals(0,failures.get(),"Failure happened");
+			assertNotSame(current,next,"A new round expected");
+			assertEquals(current.end,next.join,"Next round starts when current round ends");
+		}
+		finally {
+			worker.shutdownNow();
+		}
+	}
+}
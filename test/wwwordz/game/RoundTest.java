@@ -5,10 +5,15 @@
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +22,7 @@ import org.junit.jupiter.api.Test;
 
 import wwwordz.TestData;
 import wwwordz.shared.Puzzle;
+import wwwordz.shared.PuzzleSnapshot;
 import wwwordz.shared.Rank;
 import wwwordz.shared.WWWordzException;
 
@@ -163,6 +169,41 @@ public class RoundTest extends TestData {
 	}	
 	
 	
+	/**
+	 * Test getPuzzleSnapshot.
+	 * 1) invocation before play stage: (exception)
+	 * 2) invocation during play stage: the same snapshot, with the puzzle of the round
+	 * 3) invocation after play stage: (exception)
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Puzzle snapshot")
+	public void testGetPuzzleSnapshot() throws InterruptedException {
+		
+		assertAll("getPuzzleSnapshot",
+				() -> assertThrows(WWWordzException.class, 
+						() -> round.getPuzzleSnapshot(),
+						"Exception expected before play stage"),	
+				() -> {
+				
+					Thread.sleep(STAGE_DURATION);
+		
+					PuzzleSnapshot snapshot = round.getPuzzleSnapshot();
+			
+					assertSame(snapshot,round.getPuzzleSnapshot(),"Same snapshot expected");
+					assertEquals(round.getPuzzle().getTable(),snapshot.getPuzzle().getTable(),"Table of round expected");
+					assertTrue(snapshot.getLength() > 0,"Encoded puzzle expected");
+				},
+				() -> {
+		
+					Thread.sleep(STAGE_DURATION);
+		
+					assertThrows(WWWordzException.class,
+							() -> round.getPuzzleSnapshot(),
+							"Exception expected after play stage");
+				});
+	}	
+	
 	/**
 	 * Test setPoints method
 	 * 1) Set points before report phase: (exception)
@@ -260,5 +301,209 @@ public class RoundTest extends TestData {
 				});
 
 	}
+	
+	static final int THREADS = 2000;
+	static final int SAME_NICK = 10;
+	
+	/**
+	 * Test registering and setting points from thousands of concurrent threads. 
+	 * Many threads register the same nick, and each player reports points from many threads, 
+	 * each report adding to the accumulated points of the player. 
+	 * The leaderboard has the points of every player once updates are over.
+	 * The round uses a virtual clock, hence all threads run within the stages.
+	 * @throws InterruptedException
+	 * @throws WWWordzException 
+	 */
+	@Test
+	@DisplayName("Concurrent register and set points")
+	public void testConcurrentRegisterAndSetPoints() throws InterruptedException, WWWordzException {
+		VirtualClock clock = new VirtualClock();
+		round = new Round(clock);
+		AtomicInteger failures = new AtomicInteger();
+		int players = THREADS / SAME_NICK;
+		
+		runAll(i -> round.register(NICK+(i % players), PASSWORD), failures);
+		assertEquals(0,failures.get(),"No failures registering");
+		
+		clock.advance(2*STAGE_DURATION);
+		int[] accumulated = new int[players];
+		for(int i=0; i<players; i++)
+			accumulated[i] = round.roundPlayers.get(NICK+i).player.getAccumulated();
+		
+		runAll(i -> round.setPoints(NICK+(i % players), i % players), failures);
+		assertEquals(0,failures.get(),"No failures setting points");
+		
+		assertEquals(players,round.roundPlayers.size(),"All players registered once");
+		for(int i=0; i<players; i++) {
+			Round.Slot slot = round.roundPlayers.get(NICK+i);
+			assertEquals(i,slot.getPoints(),"Points in round");
+			assertEquals(i,slot.player.getPoints(),"Points of player");
+			assertEquals(accumulated[i] + SAME_NICK * i,slot.player.getAccumulated(),"Accumulated points of player");
+		}
+		
+		clock.advance(STAGE_DURATION);
+		List<Rank> ranking = round.getRanking();
+		assertEquals(players,ranking.size(),"All players ranked");
+		for(int position=0; position<players; position++) {
+			int i = players - 1 - position;
+			assertEquals(NICK+i,ranking.get(position).getNick(),"Most points first");
+			assertEquals(i,ranking.get(position).getPoints(),"Points in leaderboard");
+			assertEquals(position,round.getPosition(NICK+i),"Position of player");
+		}
+	}
+	
+	static final int ROUNDS = 200;
+	
+	/**
+	 * Test stages of many rounds with a virtual clock, advancing it to the limits of each stage
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Stages with virtual clock")
+	public void testVirtualClock() throws WWWordzException {
+		VirtualClock clock = new VirtualClock();
+		for(int r=0; r<ROUNDS; r++) {
+			Round round = new Round(clock);
+			int points = r;
+			
+			assertEquals(Round.Stage.join,round.currentStage(),"Join stage");
+			assertEquals(STAGE_DURATION,round.getTimetoNextPlay(),"Time to play");
+			assertEquals(STAGE_DURATION,round.register(NICK, PASSWORD),"Time to play");
+			assertThrows(WWWordzException.class, () -> round.getPuzzle(),"Exception expected in join stage");
+			
+			clock.advance(STAGE_DURATION - 1);
+			assertEquals(Round.Stage.join,round.currentStage(),"Still in join stage");
+			assertEquals(1,round.getTimetoNextPlay(),"Time to play");
+			
+			clock.advance(1);
+			assertEquals(Round.Stage.play,round.currentStage(),"Play stage");
+			assertEquals(4*STAGE_DURATION,round.getTimetoNextPlay(),"Time to next round");
+			assertNotNull(round.getPuzzle(),"Puzzle expected in play stage");
+			assertThrows(WWWordzException.class, () -> round.register(OTHER_NICK, OTHER_PASSWORD),
+					"Exception expected in play stage");
+			assertThrows(WWWordzException.class, () -> round.setPoints(NICK,points),
+					"Exception expected in play stage");
+			
+			clock.advance(STAGE_DURATION);
+			assertEquals(Round.Stage.report,round.currentStage(),"Report stage");
+			assertThrows(WWWordzException.class, () -> round.getPuzzle(),"Exception expected in report stage");
+			round.setPoints(NICK, points);
+			
+			clock.advance(STAGE_DURATION);
+			assertEquals(Round.Stage.ranking,round.currentStage(),"Ranking stage");
+			assertThrows(WWWordzException.class, () -> round.setPoints(NICK,0),
+					"Exception expected in ranking stage");
+			
+			clock.advance(STAGE_DURATION);
+			assertEquals(Round.Stage.ranking,round.currentStage(),"Ranking stage after end");
+		}
+		assertEquals((ROUNDS-1)*ROUNDS/2,Players.getInstance().getPlayer(NICK).getAccumulated(),
+				"Points accumulated in all rounds");
+	}
+	
+	static final int SUBMISSIONS = 20000;
+	
+	/**
+	 * Test submission of words: only in report stage, each word scored once against the solutions, 
+	 * for many players at once
+	 * @throws InterruptedException
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Submit words")
+	public void testSubmit() throws InterruptedException, WWWordzException {
+		VirtualClock clock = new VirtualClock();
+		round = new Round(clock);
+		AtomicInteger failures = new AtomicInteger();
+		List<String> words = new ArrayList<>();
+		int total = 0;
+		for(Puzzle.Solution solution : round.puzzle.getSolutionIndex().values()) {
+			words.add(solution.getWord());
+			words.add(solution.getWord());
+			total += solution.getPoints();
+		}
+		words.add("WWWORDZ");
+		
+		for(int i=0; i<SUBMISSIONS; i++)
+			round.register(NICK+i, PASSWORD);
+		assertThrows(WWWordzException.class, () -> round.submit(NICK+0, words),"Exception expected in join stage");
+		
+		clock.advance(2*STAGE_DURATION);
+		assertThrows(WWWordzException.class, () -> round.submit(OTHER_NICK, words),"Exception expected for unknown player");
+		
+		runAll(i -> {
+			for(int j=i; j<SUBMISSIONS; j+=THREADS)
+				round.submit(NICK+j, words);
+		}, failures);
+		assertEquals(0,failures.get(),"No failures submitting");
+		for(int i=0; i<SUBMISSIONS; i++)
+			assertEquals(total,round.roundPlayers.get(NICK+i).getPoints(),"Points of submitted words");
+		
+		clock.advance(STAGE_DURATION);
+		assertThrows(WWWordzException.class, () -> round.submit(NICK+0, words),"Exception expected in ranking stage");
+	}
+	
+	/**
+	 * Test rankings of consecutive rounds: each round has its own ranking, 
+	 * with positions and top players read from its leaderboard
+	 * @throws WWWordzException
+	 */
+	@Test
+	@DisplayName("Rankings of many rounds")
+	public void testRankingsOfRounds() throws WWWordzException {
+		VirtualClock clock = new VirtualClock();
+		for(int r=1; r<=3; r++) {
+			Round round = new Round(clock);
+			for(int i=0; i<REPEAT; i++)
+				round.register(NICK+i, PASSWORD);
+			round.register(OTHER_NICK, OTHER_PASSWORD);
+			
+			clock.advance(2*STAGE_DURATION);
+			for(int i=0; i<REPEAT; i++)
+				round.setPoints(NICK+i, r*i + 1);
+			assertThrows(WWWordzException.class, () -> round.getPosition(NICK),"Exception expected in report stage");
+			
+			clock.advance(STAGE_DURATION);
+			List<Rank> ranking = round.getRanking();
+			assertEquals(REPEAT+1,ranking.size(),"Players of this round");
+			assertEquals(r*(REPEAT-1) + 1,ranking.get(0).getPoints(),"Points of this round");
+			assertEquals(OTHER_NICK,ranking.get(REPEAT).getNick(),"Player without points last");
+			assertEquals(0,round.getPosition(NICK+(REPEAT-1)),"First position");
+			assertEquals(REPEAT,round.getPosition(OTHER_NICK),"Last position");
+			List<Rank> top = round.getTop(3);
+			assertEquals(3,top.size(),"Top players");
+			for(int i=0; i<top.size(); i++)
+				assertEquals(ranking.get(i).getNick(),top.get(i).getNick(),"Top players");
+			
+			clock.advance(STAGE_DURATION);
+		}
+	}
+	
+	interface Task {
+		void run(int i) throws WWWordzException;
+	}
+	
+	/**
+	 * Run a task in many threads at once, counting failures
+	 */
+	private static void runAll(Task task, AtomicInteger failures) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>(THREADS);
+		for(int i=0; i<THREADS; i++) {
+			int index = i;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+					task.run(index);
+				} catch (InterruptedException | WWWordzException e) {
+					failures.incrementAndGet();
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for(Thread thread : threads)
+			thread.join();
+	}
 }
-
@@ -0,0 +1,67 @@
+package wwwordz.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.puzzle.Generator;
+import wwwordz.shared.Puzzle;
+
+@DisplayName("Scorer")
+public class ScorerTest {
+	
+	static Puzzle puzzle;
+	static Scorer scorer;
+	
+	/**
+	 * Generate a puzzle and its scorer before any tests
+	 */
+	@BeforeAll
+	public static void prepare() {
+		puzzle = new Generator().generate(42L);
+		scorer = new Scorer(puzzle);
+	}
+	
+	/**
+	 * Words score the points of their solution
+	 */
+	@Test
+	@DisplayName("Single words")
+	public void testWords() {
+		assertEquals(puzzle.getSolutionIndex().size(),scorer.size(),"A word per solution");
+		for(Puzzle.Solution solution : puzzle.getSolutions())
+			assertEquals(solution.getPoints(),scorer.score(solution.getWord()),"Points of solution");
+		assertEquals(0,scorer.score("WWWORDZ"),"Not a solution");
+		assertEquals(0,scorer.score((String) null),"No word");
+	}
+	
+	/**
+	 * Submissions score each word once, ignoring words that are not solutions
+	 */
+	@Test
+	@DisplayName("Submissions")
+	public void testSubmissions() {
+		int total = 0;
+		List<String> words = new ArrayList<>();
+		for(Puzzle.Solution solution : puzzle.getSolutionIndex().values()) {
+			total += solution.getPoints();
+			words.add(solution.getWord());
+		}
+		assertEquals(total,scorer.score(words),"All solutions");
+		
+		words.addAll(new ArrayList<>(words));
+		words.add("WWWORDZ");
+		Collections.shuffle(words);
+		assertEquals(total,scorer.score(words),"Repeated words scored once");
+		
+		assertEquals(0,scorer.score(Collections.emptyList()),"No words");
+		assertEquals(0,scorer.score(Arrays.asList("WWWORDZ", "", null)),"No solutions");
+	}
+}
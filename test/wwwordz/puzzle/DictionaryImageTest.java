@@ -0,0 +1,92 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Dictionary image")
+public class DictionaryImageTest {
+
+	static final List<String> WORDS = Arrays.asList(
+			"PATO", "PATA", "POLACO", "ATOL", "COBOL", "API", "APITO");
+
+	@TempDir
+	File directory;
+
+	File source;
+	File image;
+
+	@BeforeEach
+	public void before() throws IOException {
+		source = new File(directory, "words.dic");
+		image = new File(directory, "words.img");
+		Files.write(source.toPath(), WORDS);
+	}
+
+	private CompactTrie compact() {
+		Trie trie = new Trie();
+		for(String word: WORDS)
+			trie.put(word);
+		trie.compact();
+		return trie.compact;
+	}
+
+	/**
+	 * Write an image and map it back
+	 * 1) same number of nodes
+	 * 2) same words
+	 */
+	@Test
+	@DisplayName("Write and read")
+	public void testWriteAndRead() throws IOException {
+		CompactTrie written = compact();
+		DictionaryImage.write(written, source, DictionaryImage.checksum(source), image);
+
+		CompactTrie read = DictionaryImage.read(source, image);
+		assertNotNull(read,"Image expected");
+		assertEquals(written.size(),read.size(),"Same number of nodes expected");
+
+		HashSet<String> obtained = new HashSet<>();
+		for(String word: new Trie(read))
+			obtained.add(word);
+		assertEquals(new HashSet<>(WORDS),obtained);
+	}
+
+	/**
+	 * Missing images and images of other sources are not read
+	 */
+	@Test
+	@DisplayName("Stale image")
+	public void testStale() throws IOException {
+		assertNull(DictionaryImage.read(source, image),"Missing image");
+
+		DictionaryImage.write(compact(), source, DictionaryImage.checksum(source), image);
+		Files.write(source.toPath(), Arrays.asList("OUTRA", "COISA"));
+
+		assertNull(DictionaryImage.read(source, image),"Image of a changed source");
+	}
+
+	/**
+	 * An image of an unchanged source is read, even if its modification time changed
+	 */
+	@Test
+	@DisplayName("Touched source")
+	public void testTouched() throws IOException {
+		DictionaryImage.write(compact(), source, DictionaryImage.checksum(source), image);
+		source.setLastModified(source.lastModified() - 60000);
+
+		assertNotNull(DictionaryImage.read(source, image),"Image of the same source");
+	}
+}
@@ -0,0 +1,128 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Dictionary loader")
+public class DictionaryLoaderTest {
+
+	@TempDir
+	File directory;
+
+	/**
+	 * Check that lines are folded as the Normalizer would
+	 * 1) only letters before the first non letter
+	 * 2) capitals without diacritics
+	 * 3) short words discarded and repeated words merged
+	 */
+	@Test
+	@DisplayName("Parse lines")
+	public void testParse() {
+		String lines = "ação/p\t[CAT=nc]\nÁgua\nPÊRA\nà\nab\nfóssil/p\nACAO\n";
+		byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+
+		assertArrayEquals(new String[] { "ACAO", "AGUA", "FOSSIL", "PERA" },
+				DictionaryLoader.parse(bytes, 0, bytes.length));
+	}
+
+	/**
+	 * Words with letters that don't fold into A to Z are skipped and counted
+	 */
+	@Test
+	@DisplayName("Skip other letters")
+	public void testSkipped() {
+		String lines = "água\nærø/p\nþorn\nPERA\nœ\n";
+		byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+		LongAdder skipped = new LongAdder();
+
+		assertArrayEquals(new String[] { "AGUA", "PERA" },
+				DictionaryLoader.parse(bytes, 0, bytes.length, skipped));
+		assertEquals(2,skipped.intValue(),"Skipped words");
+	}
+
+	/**
+	 * Fold table agrees with the Normalizer for all letters in the table
+	 */
+	@Test
+	@DisplayName("Fold table")
+	public void testFoldTable() {
+		for(char letter=0; letter<DictionaryLoader.FOLD.length; letter++) {
+			char folded = DictionaryLoader.FOLD[letter];
+			if(folded != DictionaryLoader.NOT_LETTER && folded != DictionaryLoader.UNFOLDABLE)
+				assertEquals(DictionaryLoader.fold(String.valueOf(letter)),String.valueOf(folded),
+						"Fold of "+letter);
+		}
+	}
+
+	/**
+	 * Load a file larger than a chunk with a parallel pool
+	 * 1) first line is skipped
+	 * 2) all words are in the trie
+	 * 3) statistics are reported
+	 */
+	@Test
+	@DisplayName("Load in chunks")
+	public void testLoad() throws IOException {
+		List<String> lines = new ArrayList<>();
+		TreeSet<String> expected = new TreeSet<>();
+		lines.add("COUNT");
+		for(int i=0; i<20000; i++) {
+			String word = "PAL" + Integer.toString(i, 26).toUpperCase().replaceAll("[0-9]", "X");
+			lines.add(word.toLowerCase() + "/p");
+			expected.add(word);
+		}
+		File file = new File(directory, "words.dic");
+		Files.write(file.toPath(), lines);
+		assertTrue(file.length() > DictionaryLoader.CHUNK_SIZE, "File should have many chunks");
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		DictionaryLoader loader = new DictionaryLoader(pool);
+		CompactTrie trie;
+		try {
+			trie = loader.load(file);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		TreeSet<String> obtained = new TreeSet<>();
+		for(String word: new Trie(trie))
+			obtained.add(word);
+		assertEquals(expected,obtained);
+
+		assertNotNull(loader.getStatistics(),"Statistics expected");
+		assertEquals(expected.size(),loader.getStatistics().getWords());
+		assertEquals(0,loader.getStatistics().getSkipped(),"No skipped words");
+		assertTrue(loader.getStatistics().getWordsPerSecond() > 0,"Throughput expected");
+	}
+
+	/**
+	 * Merging sorted batches discards repetitions
+	 */
+	@Test
+	@DisplayName("Merge batches")
+	public void testMerge() {
+		String[] one = { "ABC", "CASA", "PATO" };
+		String[] other = { "BOLA", "CASA", "ZEBRA" };
+
+		assertEquals(Arrays.asList("ABC", "BOLA", "CASA", "PATO", "ZEBRA"),
+				Arrays.asList(DictionaryLoader.merge(one, other)));
+	}
+}
@@ -3,9 +3,12 @@ package wwwordz.puzzle;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
 import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -34,6 +37,18 @@ public class DictionaryTest {
 		assertEquals(dictionary,copy,"Multiples instances of singleton");
 	}
 	
+	/**
+	 * Check that the dictionary image is cached outside the source tree
+	 */
+	@Test
+	@DisplayName("Image")
+	public void testImage() {
+		assertNull(dictionary.getImageException(),"Image read or written");
+		assertTrue(Dictionary.getImageFile().isFile(),"Image expected");
+		assertFalse(Dictionary.getImageFile().getAbsolutePath().startsWith(new File("src").getAbsolutePath()),
+				"Image outside the source tree");
+	}
+	
 	private Pattern allLetterPattern = Pattern.compile("[A-Z]+");
 	
 	/**
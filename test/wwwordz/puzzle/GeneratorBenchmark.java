@@ -0,0 +1,107 @@
+package wwwordz.puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Table;
+
+/**
+ * Benchmarks of puzzle generation, reported on standard output.
+ */
+@Tag("benchmark")
+@DisplayName("Generator benchmark")
+public class GeneratorBenchmark {
+
+	static final int WARMUP = 500;
+	static final int TABLES = 200;
+
+	@BeforeAll
+	public static void before() {
+		Dictionary.getInstance();
+	}
+
+	/**
+	 * Report average solve time of generated tables for each size from 4 to 8
+	 */
+	@Test
+	@DisplayName("Solve time per table size")
+	public void solveTimePerSize() {
+		for(int size = Table.TABLE_SIZE; size <= Solver.MAXIMUM_SIZE; size++) {
+			Generator generator = new Generator(size);
+			List<Table> tables = new ArrayList<>();
+			for(int i=0; i<WARMUP + TABLES; i++)
+				tables.add(generator.generate().getTable());
+
+			long solutions = 0, start = 0;
+			for(int i=0; i<tables.size(); i++) {
+				if(i == WARMUP) start = System.nanoTime();
+				int found = generator.getSolutions(tables.get(i)).size();
+				if(i >= WARMUP) solutions += found;
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("%dx%d: %8.1f us/table, %6d solutions/table%n",
+					size, size, elapsed / 1e3 / TABLES, solutions / TABLES);
+		}
+	}
+
+	/**
+	 * Report generation throughput for each size from 4 to 8
+	 */
+	@Test
+	@DisplayName("Generation throughput per size")
+	public void generationThroughput() {
+		for(int size = Table.TABLE_SIZE; size <= Solver.MAXIMUM_SIZE; size++) {
+			Generator generator = new Generator(size);
+			for(int i=0; i<WARMUP; i++)
+				generator.generate(i);
+
+			long start = System.nanoTime();
+			for(int i=0; i<TABLES; i++)
+				generator.generate(i);
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("%dx%d: %8.1f puzzles/s%n", size, size, TABLES * 1e9 / elapsed);
+		}
+	}
+
+	/**
+	 * Report table filling throughput, without solving, for each size from 4 to 8
+	 */
+	@Test
+	@DisplayName("Filling throughput per size")
+	public void fillingThroughput() {
+		LargeWordIndex words = Dictionary.getInstance().getLargeWordIndex();
+		for(int size = Table.TABLE_SIZE; size <= Solver.MAXIMUM_SIZE; size++) {
+			TableFiller filler = new TableFiller(size);
+			for(int i=0; i<WARMUP; i++)
+				filler.fill(i, words, 3, LargeWordIndex.Weighting.LENGTH);
+
+			long start = System.nanoTime();
+			for(int i=0; i<TABLES * 10; i++)
+				filler.fill(i, words, 3, LargeWordIndex.Weighting.LENGTH);
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("%dx%d: %8.1f tables filled/s%n", size, size, TABLES * 10 * 1e9 / elapsed);
+		}
+	}
+
+	/**
+	 * Report time spent generating puzzles for an unreachable quality, compared with its budget
+	 */
+	@Test
+	@DisplayName("Quality budget")
+	public void qualityBudget() {
+		Generator generator = new Generator();
+		for(long budget = 50; budget <= 400; budget *= 2) {
+			QualitySpec impossible = new QualitySpec(10000, 10000, budget);
+			long start = System.nanoTime();
+			int words = generator.generate(impossible).getSolutions().size();
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("budget %4d ms: %8.1f ms spent, %6d solutions in best puzzle%n",
+					budget, elapsed / 1e6, words);
+		}
+	}
+}
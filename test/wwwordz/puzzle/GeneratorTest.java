@@ -2,11 +2,15 @@ package wwwordz.puzzle;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 import org.junit.jupiter.api.BeforeEach;
@@ -92,6 +96,155 @@ public class GeneratorTest {
 	}
 	
 	
+	/**
+	 * Check that solutions have distinct words and are indexed by word in the puzzle
+	 */
+	@Test
+	public void distinctSolutions() {
+		Puzzle puzzle = new Puzzle();
+		puzzle.setTable(new Table(TableTest.data));
+		puzzle.setSolutions(generator.getSolutions(puzzle.getTable()));
+		
+		Set<String> distinct = new HashSet<>();
+		for(Solution solution: puzzle.getSolutions()) {
+			assertTrue(distinct.add(solution.getWord()),"Word "+solution.getWord()+" repeated");
+			assertSame(solution,puzzle.getSolution(solution.getWord()),"Solution indexed by word");
+			assertEquals(solution.getPoints(),puzzle.getPoints(solution.getWord()));
+		}
+		assertNull(puzzle.getSolution("XPTO"),"Not a solution");
+		assertEquals(0,puzzle.getPoints("XPTO"),"No points for other words");
+	}
+	
+	/**
+	 * Check generation of larger tables
+	 * 1) generated tables have the generator size and no empty cells
+	 * 2) larger tables have more solutions
+	 */
+	@Test
+	public void largerTables() {
+		int previous = 0;
+		for(int size = Table.TABLE_SIZE; size <= 6; size++) {
+			Generator other = new Generator(size);
+			int sum = 0;
+			for(int i=0; i<10; i++) {
+				Puzzle puzzle = other.generate();
+				assertEquals(size,puzzle.getTable().getSize(),"Table with generator size");
+				assertEquals(0,puzzle.getTable().getEmptyCells().size(),"Table should be full");
+				sum += puzzle.getSolutions().size();
+			}
+			assertTrue(sum > previous,"Larger tables should have more solutions");
+			previous = sum;
+		}
+	}
+	
+	/**
+	 * Check that large words are drawn uniformly by default, as before words could be weighted
+	 */
+	@Test
+	public void defaultWeighting() {
+		assertEquals(LargeWordIndex.Weighting.UNIFORM,new Generator().getWeighting(),"Uniform weighting expected");
+	}
+	
+	/**
+	 * Check seeded generation
+	 * 1) the same seed generates the same table and solutions
+	 * 2) puzzles record their seed and dictionary version
+	 */
+	@Test
+	public void seeded() {
+		long version = Dictionary.getInstance().getVersion();
+		for(long seed = 0; seed < 20; seed++) {
+			Puzzle puzzle = generator.generate(seed);
+			Puzzle other = new Generator().generate(seed);
+			assertEquals(puzzle.getTable(),other.getTable(),"Same table expected");
+			assertEquals(puzzle.getSolutions().size(),other.getSolutions().size(),"Same solutions expected");
+			assertEquals(seed,puzzle.getSeed());
+			assertEquals(version,puzzle.getDictionaryVersion());
+			
+			Puzzle random = generator.random(seed);
+			assertEquals(random.getTable(),generator.random(seed).getTable(),"Same random table expected");
+			assertEquals(seed,random.getSeed());
+		}
+	}
+	
+	/**
+	 * Check generation with a cache: puzzles of seeds already generated are not generated again
+	 */
+	@Test
+	public void cached() {
+		PuzzleCache cache = new PuzzleCache(2);
+		generator.setCache(cache);
+		
+		Puzzle puzzle = generator.generate(1);
+		assertSame(puzzle,generator.generate(1),"Cached puzzle expected");
+		assertEquals(1,cache.getHits());
+		assertEquals(1,cache.getMisses());
+		
+		generator.setMinimumWordLength(5);
+		assertEquals(0,cache.size(),"Cache cleared when large words change");
+	}
+	
+	/**
+	 * Check solving with a solution cache: tables with the same letters are solved once
+	 */
+	@Test
+	public void cachedSolutions() {
+		SolutionCache cache = new SolutionCache(4);
+		generator.setSolutionCache(cache);
+		
+		List<Solution> solutions = generator.getSolutions(new Table(TableTest.data));
+		assertSame(solutions,generator.getSolutions(new Table(TableTest.data)),"Cached solutions expected");
+		assertEquals(1,cache.getHits());
+		assertEquals(1,cache.getMisses());
+		assertEquals(1,cache.size());
+	}
+	
+	/**
+	 * Check quality targeted generation
+	 * 1) reachable targets are satisfied
+	 * 2) unreachable targets return the best puzzle found within the budget
+	 * 3) generated puzzles can be generated again from their seed
+	 */
+	@Test
+	public void quality() {
+		QualitySpec spec = new QualitySpec(80, 10, 1000);
+		for(int i=0; i<10; i++) {
+			Puzzle puzzle = generator.generate(spec);
+			assertTrue(spec.isSatisfiedBy(puzzle.getSolutions()),"Quality expected");
+			assertEquals(puzzle.getTable(),generator.generate(puzzle.getSeed()).getTable(),"Same table from seed");
+		}
+		
+		QualitySpec impossible = new QualitySpec(10000, 10000, 100);
+		Puzzle puzzle = generator.generate(impossible);
+		assertFalse(impossible.isSatisfiedBy(puzzle.getSolutions()),"Quality can't be reached");
+		assertTrue(puzzle.getSolutions().size() > 0,"Best puzzle expected");
+		assertEquals(puzzle.getTable(),generator.generate(puzzle.getSeed()).getTable(),"Same table from seed");
+	}
+	
+	/**
+	 * Check lazy stream of solutions
+	 * 1) same solutions, in the same order, as getSolutions
+	 * 2) short-circuiting operations
+	 * 3) empty stream for tables with empty cells
+	 */
+	@Test
+	public void streamSolutions() {
+		Table table = new Table(TableTest.data);
+		List<Solution> solutions = generator.getSolutions(table);
+		List<Solution> streamed = generator.solutions(table).collect(Collectors.toList());
+		
+		assertEquals(solutions.size(),streamed.size(),"Same number of solutions");
+		for(int i=0; i<solutions.size(); i++) {
+			assertEquals(solutions.get(i).getWord(),streamed.get(i).getWord(),"Same word");
+			assertEquals(solutions.get(i).getCells(),streamed.get(i).getCells(),"Same cells");
+		}
+		assertEquals(solutions.size(),generator.solutions(table).count());
+		assertEquals(solutions.get(0).getWord(),generator.solutions(table).findFirst().get().getWord());
+		assertEquals(3,generator.solutions(table).limit(3).count());
+		assertTrue(generator.solutions(table).anyMatch(solution -> solution.getWord().equals("PATO")));
+		assertEquals(0,generator.solutions(new Table()).count(),"No solutions in empty table");
+	}
+	
 	/**
 	 * Check if given list of solutions already contains a word
 	 * @param solutions
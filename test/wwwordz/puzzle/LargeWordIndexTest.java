@@ -0,0 +1,77 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.puzzle.LargeWordIndex.Weighting;
+
+@DisplayName("Large word index")
+public class LargeWordIndexTest {
+
+	static final int SAMPLES = 20000;
+	static final List<String> WORDS = Arrays.asList(
+			"ABC", "ASW", "POIS", "PATO", "COBOL", "POLACO", "BOLOTADA");
+
+	/**
+	 * Check that uniform sampling draws every word with similar frequency
+	 */
+	@Test
+	@DisplayName("Uniform")
+	public void testUniform() {
+		LargeWordIndex index = new LargeWordIndex(WORDS);
+		Random random = new Random(1);
+		Map<String,Integer> counts = new HashMap<>();
+
+		for(int i=0; i<SAMPLES; i++)
+			counts.merge(index.sample(random, 0, Weighting.UNIFORM), 1, Integer::sum);
+
+		assertEquals(WORDS.size(),counts.size(),"All words expected");
+		int expected = SAMPLES / WORDS.size();
+		for(int count: counts.values())
+			assertTrue(Math.abs(count - expected) < expected / 5,"Frequency close to uniform");
+	}
+
+	/**
+	 * Check that sampled words respect the minimum length,
+	 * and the longest words are drawn if none is long enough
+	 */
+	@Test
+	@DisplayName("Minimum length")
+	public void testMinimumLength() {
+		LargeWordIndex index = new LargeWordIndex(WORDS);
+		Random random = new Random(2);
+
+		for(int i=0; i<1000; i++)
+			assertTrue(index.sample(random, 5, Weighting.UNIFORM).length() >= 5,"Minimum length expected");
+		assertEquals("BOLOTADA",index.sample(random, 20, Weighting.UNIFORM),"Longest word expected");
+		assertEquals(8,index.getLongest());
+		assertEquals("",new LargeWordIndex(Collections.emptyList()).sample(random, 0, Weighting.UNIFORM));
+	}
+
+	/**
+	 * Check that length weighting favours larger words
+	 */
+	@Test
+	@DisplayName("Length weighting")
+	public void testLengthWeighting() {
+		LargeWordIndex index = new LargeWordIndex(WORDS);
+		Random random = new Random(3);
+		long uniform = 0, weighted = 0;
+
+		for(int i=0; i<SAMPLES; i++) {
+			uniform += index.sample(random, 0, Weighting.UNIFORM).length();
+			weighted += index.sample(random, 0, Weighting.LENGTH).length();
+		}
+		assertTrue(weighted > uniform,"Larger words expected with length weighting");
+	}
+}
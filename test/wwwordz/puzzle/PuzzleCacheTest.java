@@ -0,0 +1,56 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Puzzle;
+
+@DisplayName("Puzzle cache")
+public class PuzzleCacheTest {
+
+	private static Puzzle puzzle(long seed) {
+		Puzzle puzzle = new Puzzle();
+		puzzle.setSeed(seed);
+		return puzzle;
+	}
+
+	/**
+	 * Check that puzzles are found by seed
+	 */
+	@Test
+	@DisplayName("Get by seed")
+	public void testGet() {
+		PuzzleCache cache = new PuzzleCache(4);
+		Puzzle puzzle = puzzle(42);
+
+		cache.put(puzzle);
+		assertSame(puzzle,cache.get(42));
+		assertNull(cache.get(43));
+		assertEquals(1,cache.getHits());
+		assertEquals(1,cache.getMisses());
+	}
+
+	/**
+	 * Check that the least recently used puzzle is evicted when the cache is full
+	 */
+	@Test
+	@DisplayName("Least recently used eviction")
+	public void testEviction() {
+		PuzzleCache cache = new PuzzleCache(2);
+
+		cache.put(puzzle(1));
+		cache.put(puzzle(2));
+		cache.get(1);
+		cache.put(puzzle(3));
+
+		assertEquals(2,cache.size());
+		assertEquals(2,cache.getCapacity());
+		assertNull(cache.get(2),"Least recently used evicted");
+		assertEquals(1,cache.get(1).getSeed());
+		assertEquals(3,cache.get(3).getSeed());
+	}
+}
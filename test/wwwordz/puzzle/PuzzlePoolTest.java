@@ -0,0 +1,102 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Puzzle;
+
+@DisplayName("Puzzle pool")
+public class PuzzlePoolTest {
+
+	static final int CAPACITY = 3;
+	static final long TIMEOUT = 10000;
+
+	/**
+	 * Producers fill the pool up to its capacity and taking ready puzzles counts as hits
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Hits")
+	public void testHits() throws InterruptedException {
+		PuzzlePool pool = new PuzzlePool(Generator::new, CAPACITY, 2);
+
+		try {
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while(pool.getDepth() < CAPACITY && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+			assertEquals(CAPACITY,pool.getDepth(),"Pool should be full");
+			assertEquals(CAPACITY,pool.getCapacity());
+			assertTrue(pool.getRefillRate() > 0,"Refill rate expected");
+
+			Puzzle puzzle = pool.take();
+			assertNotNull(puzzle.getTable(),"Table expected");
+			assertEquals(1,pool.getHits());
+			assertEquals(0,pool.getMisses());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Without producers, puzzles are generated when taken and count as misses
+	 */
+	@Test
+	@DisplayName("Misses")
+	public void testMisses() {
+		PuzzlePool pool = new PuzzlePool(Generator::new, CAPACITY, 0);
+
+		for(int i=0; i<CAPACITY; i++)
+			assertNotNull(pool.take().getSolutions(),"Solutions expected");
+		assertEquals(0,pool.getHits());
+		assertEquals(CAPACITY,pool.getMisses());
+		assertEquals(0,pool.getDepth());
+		assertEquals(0,pool.getProduced());
+	}
+
+	/**
+	 * Producers keep producing after failing to generate a puzzle, each with its own generator
+	 * @throws InterruptedException
+	 */
+	@Test
+	@DisplayName("Failures")
+	public void testFailures() throws InterruptedException {
+		Set<Generator> generators = ConcurrentHashMap.newKeySet();
+		AtomicInteger calls = new AtomicInteger();
+		PuzzlePool pool = new PuzzlePool(() -> {
+			Generator generator = new Generator() {
+				@Override
+				public Puzzle generate() {
+					if(calls.incrementAndGet() <= 2)
+						throw new IllegalStateException("Failure expected by test");
+					return super.generate();
+				}
+			};
+			generators.add(generator);
+			return generator;
+		}, CAPACITY, 2);
+
+		try {
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while(pool.getDepth() < CAPACITY && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+			assertEquals(CAPACITY,pool.getDepth(),"Pool should be full after failures");
+			assertEquals(2,pool.getFailures(),"Failures counted");
+			assertEquals(2,generators.size(),"A generator per producer");
+			Set<Generator> producing = Set.copyOf(generators);
+			assertFalse(producing.contains(pool.getGenerator()),"Takers don't share producer generators");
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Puzzle.Solution;
+
+@DisplayName("Quality specification")
+public class QualitySpecTest {
+
+	private static List<Solution> solutions(String... words) {
+		List<Solution> solutions = new ArrayList<>();
+		for(String word: words)
+			solutions.add(new Solution(word, Collections.emptyList()));
+		return solutions;
+	}
+
+	/**
+	 * Check satisfaction and score of solutions
+	 */
+	@Test
+	@DisplayName("Score")
+	public void testScore() {
+		QualitySpec spec = new QualitySpec(4, 2, 100);
+
+		assertTrue(spec.isSatisfiedBy(solutions("ABC","ABCD","ABCDE","ABCDEF")));
+		assertFalse(spec.isSatisfiedBy(solutions("ABC","ABCD","ABCDE","ABCD")),"Not enough long words");
+		assertFalse(spec.isSatisfiedBy(solutions("ABCDE","ABCDE")),"Not enough words");
+		assertEquals(2.0,spec.score(solutions("ABC","ABCD","ABCDE","ABCDEF","ABCDEFG")),1e-9);
+		assertEquals(0.5,spec.score(solutions("ABC","ABCD")),1e-9);
+		assertEquals(1.5,spec.score(solutions("ABCDE","ABCDE")),1e-9);
+		assertEquals(0.0,spec.score(solutions()),1e-9);
+	}
+
+	/**
+	 * Check projection of solutions found from some starting cells
+	 */
+	@Test
+	@DisplayName("Reachable")
+	public void testReachable() {
+		QualitySpec spec = new QualitySpec(40, 0, 100);
+
+		assertTrue(spec.isReachable(solutions(), 3, 16),"Too soon to abandon");
+		assertFalse(spec.isReachable(solutions("ABC"), 4, 16),"Projected 4 words");
+		assertTrue(spec.isReachable(solutions("AB","ABC","ABCD","ABCDE","ABCDEF","ABCDEFG","ABCDEFGH","ABCDEFGHI","ABCDEFGHIJ","ABCDEFGHIJK"), 4, 16),
+				"Projected 40 words");
+	}
+}
@@ -0,0 +1,181 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Puzzle.Solution;
+import wwwordz.shared.Table;
+import wwwordz.shared.Table.Cell;
+import wwwordz.shared.TableTest;
+
+@DisplayName("Solver")
+public class SolverTest {
+
+	static final int TABLES = 500;
+
+	static Dictionary dictionary;
+
+	@BeforeAll
+	public static void before() {
+		dictionary = Dictionary.getInstance();
+	}
+
+	/**
+	 * Random table with letters drawn from given generator
+	 */
+	static Table randomTable(Random random) {
+		return randomTable(random, Table.TABLE_SIZE);
+	}
+	
+	/**
+	 * Random table of given size with letters drawn from given generator
+	 */
+	static Table randomTable(Random random, int size) {
+		String[] data = new String[size];
+		for(int row=0; row<size; row++) {
+			StringBuilder line = new StringBuilder();
+			for(int column=0; column<size; column++)
+				line.append((char) ('A' + random.nextInt(26)));
+			data[row] = line.toString();
+		}
+		return new Table(data);
+	}
+
+	/**
+	 * Compare the solver with a reference search over cells, in the table of TableTest
+	 */
+	@Test
+	@DisplayName("Same as reference on known table")
+	public void testKnownTable() {
+		Table table = new Table(TableTest.data);
+
+		assertSame(reference(table), new Solver(dictionary.trie.compact, table).solve());
+	}
+
+	/**
+	 * Compare the solver with a reference search over cells, in many random tables
+	 */
+	@Test
+	@DisplayName("Same as reference on random tables")
+	public void testRandomTables() {
+		Random random = new Random(42);
+
+		for(int i=0; i<TABLES; i++) {
+			Table table = randomTable(random);
+			assertSame(reference(table), new Solver(dictionary.trie.compact, table).solve());
+		}
+	}
+
+	/**
+	 * Compare the solver with a reference search over cells, in random tables of other sizes
+	 */
+	@Test
+	@DisplayName("Same as reference on other sizes")
+	public void testOtherSizes() {
+		Random random = new Random(5);
+
+		for(int size=1; size<=Solver.MAXIMUM_SIZE; size++)
+			for(int i=0; i<20; i++) {
+				Table table = randomTable(random, size);
+				assertSame(reference(table), new Solver(dictionary.trie.compact, table).solve());
+			}
+	}
+
+	/**
+	 * Compare parallel and sequential solving, in many random tables
+	 */
+	@Test
+	@DisplayName("Parallel same as sequential")
+	public void testParallel() {
+		Random random = new Random(7);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			for(int i=0; i<TABLES; i++) {
+				Solver solver = new Solver(dictionary.trie.compact, randomTable(random));
+				assertSame(solver.solve(), solver.solve(pool));
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Solving the same table again, with the same solver, finds the same solutions
+	 */
+	@Test
+	@DisplayName("Solve twice")
+	public void testSolveTwice() {
+		Random random = new Random(11);
+		for(int i=0; i<TABLES; i++) {
+			Solver solver = new Solver(dictionary.trie.compact, randomTable(random));
+			List<Solution> first = solver.solve();
+			assertSame(first, solver.solve());
+			
+			List<Solution> streamed = new ArrayList<>();
+			solver.iterator(0, solver.getCells()).forEachRemaining(streamed::add);
+			assertSame(first, streamed);
+		}
+	}
+
+	private void assertSame(List<Solution> expected, List<Solution> obtained) {
+		assertEquals(expected.size(),obtained.size(),"Same number of solutions");
+		for(int i=0; i<expected.size(); i++) {
+			assertEquals(expected.get(i).getWord(),obtained.get(i).getWord(),"Same word");
+			assertEquals(expected.get(i).getCells(),obtained.get(i).getCells(),"Same cells");
+			assertArrayEquals(expected.get(i).getPath(),obtained.get(i).getPath(),"Same path");
+		}
+	}
+
+	/**
+	 * Reference search: depth first over cells and neighbors, each cell used once,
+	 * with the cells of each solution in traversal order, keeping the first solution of each word
+	 */
+	private List<Solution> reference(Table table) {
+		List<Solution> solutions = new ArrayList<>();
+		List<Solution> distinct = new ArrayList<>();
+		Set<String> words = new HashSet<>();
+		for(Cell cell: table) {
+			Trie.Search search = dictionary.startSearch();
+			if(search.continueWith(cell.getLetter())) {
+				List<Cell> path = new ArrayList<>();
+				path.add(cell);
+				reference(table, cell, path, search, solutions);
+			}
+		}
+		for(Solution solution: solutions)
+			if(words.add(solution.getWord()))
+				distinct.add(solution);
+		return distinct;
+	}
+
+	private void reference(Table table, Cell cell, List<Cell> path, Trie.Search search, List<Solution> solutions) {
+		if(path.size() >= 2 && search.isWord()) {
+			StringBuilder word = new StringBuilder();
+			for(Cell step: path)
+				word.append(step.getLetter());
+			solutions.add(new Solution(word.toString(), new ArrayList<>(path)));
+		}
+		for(Cell neighbor: table.getNeighbors(cell)) {
+			if(path.contains(neighbor)) continue;
+			Trie.Search next = new Trie.Search(search);
+			if(next.continueWith(neighbor.getLetter())) {
+				path.add(neighbor);
+				reference(table, neighbor, path, next, solutions);
+				path.remove(path.size() - 1);
+			}
+		}
+	}
+}
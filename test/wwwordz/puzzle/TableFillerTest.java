@@ -0,0 +1,56 @@
+package wwwordz.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.puzzle.LargeWordIndex.Weighting;
+import wwwordz.shared.Table;
+import wwwordz.shared.Table.Cell;
+
+@DisplayName("Table filler")
+public class TableFillerTest {
+
+	static final int REPETITIONS = 200;
+
+	/**
+	 * Check that tables of all sizes are filled, and the same seed fills the same table
+	 */
+	@Test
+	@DisplayName("Full tables")
+	public void testFull() {
+		LargeWordIndex words = Dictionary.getInstance().getLargeWordIndex();
+
+		for(int size=1; size<=Solver.MAXIMUM_SIZE; size++) {
+			TableFiller filler = new TableFiller(size);
+			for(int seed=0; seed<REPETITIONS / 10; seed++) {
+				Table table = filler.fill(seed, words, 3, Weighting.LENGTH);
+				assertEquals(0,table.getEmptyCells().size(),"Full table expected");
+				assertEquals(table,new TableFiller(size).fill(seed, words, 3, Weighting.LENGTH),"Same table from seed");
+			}
+		}
+	}
+
+	/**
+	 * Check that placement backtracks until the whole word is placed:
+	 * a word with a letter for each cell fills the table on its own
+	 */
+	@Test
+	@DisplayName("Whole words")
+	public void testWholeWords() {
+		LargeWordIndex words = new LargeWordIndex(Arrays.asList("ABCDEFGHIJKLMNOP"));
+		TableFiller filler = new TableFiller(4);
+
+		for(int seed=0; seed<REPETITIONS; seed++) {
+			Set<Character> letters = new HashSet<>();
+			for(Cell cell: filler.fill(seed, words, 3, Weighting.UNIFORM))
+				letters.add(cell.getLetter());
+			assertEquals(16,letters.size(),"Whole word expected");
+		}
+	}
+}
@@ -3,11 +3,18 @@ package wwwordz.puzzle;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +26,10 @@ public class TrieTest {
 			"a", "aa", "ab", "abc", 
 			"b", "ba", "bac", "bc", 
 			"ola", "ola mundo", "32");
+	static final List<String> CAPITALS = Arrays.asList(
+			"A", "AA", "AB", "ABC", 
+			"B", "BA", "BAC", "BC", 
+			"OLA", "OLAMUNDO", "ZZ");
 	static final List<String> OTHERS = Arrays.asList(
 			"c", "ac", "ad", "abd",
 			"d", "bb", "bd", 
@@ -96,4 +107,131 @@ public class TrieTest {
 				"string size must be larger than average");
 	}
 	
+	/**
+	 * Test the deprecated random walk from the root node, still drawing words in leaves
+	 */
+	@Test
+	@DisplayName("Random walk")
+	@SuppressWarnings("deprecation")
+	public void testRandomWalk() {
+		Trie trie = new Trie();
+		
+		for(String word: CAPITALS)
+			trie.put(word);
+		for(int i=0; i<100; i++) {
+			String word = trie.getRoot().getRandomLargeWord();
+			assertTrue(search(trie,word),"Word "+word+" expected");
+			assertTrue(trie.getRoot().getChildrens().containsKey(word.charAt(0)),"Word from root");
+		}
+	}
+	
+	/**
+	 * Test searches and iteration on a compacted trie
+	 * 1) all words are found with isWord
+	 * 2) missing words and prefixes are not words
+	 * 3) iteration recovers all words
+	 * 4) the root is rebuilt, also in the deprecated root field
+	 */
+	@Test
+	@DisplayName("Compact")
+	@SuppressWarnings("deprecation")
+	public void testCompact() {
+		Trie trie = new Trie();
+		
+		for(String word: CAPITALS)
+			trie.put(word);
+		trie.compact();
+		assertTrue(trie.isCompact(),"Trie should be compact");
+		
+		for(String word: CAPITALS)
+			assertTrue(search(trie,word),"Word "+word+" expected");
+		for(String word: Arrays.asList("C","AC","OL","OLAM","ZZZ","a"))
+			assertFalse(search(trie,word),"Word "+word+" not expected");
+		
+		HashSet<String> obtained = new HashSet<>();
+		for(String word: trie)
+			obtained.add(word);
+		assertEquals(new HashSet<>(CAPITALS),obtained);
+		
+		assertNotNull(trie.getRoot(),"Root expected in compact mode");
+		assertTrue(trie.getRoot().getChildrens().containsKey('B'),"Nodes rebuilt from compact trie");
+		assertSame(trie.getRoot(),trie.root,"Deprecated root field holds the rebuilt root");
+		assertTrue(trie.isCompact(),"Trie should still be compact");
+	}
+	
+	/**
+	 * Test that a compact trie accepts new words and rejects other letters
+	 */
+	@Test
+	@DisplayName("Put after compact")
+	public void testPutAfterCompact() {
+		Trie trie = new Trie();
+		
+		for(String word: CAPITALS)
+			trie.put(word);
+		trie.compact();
+		trie.put("ACE");
+		
+		assertFalse(trie.isCompact(),"Trie should no longer be compact");
+		assertTrue(search(trie,"ACE"),"New word expected");
+		assertTrue(search(trie,"BAC"),"Old word expected");
+		
+		Trie other = new Trie();
+		for(String word: WORDS)
+			other.put(word);
+		assertThrows(IllegalArgumentException.class, () -> other.compact(),
+				"Only capitals can be compacted");
+	}
+	
+	/**
+	 * Test that sequential and parallel streams recover all words, in both modes
+	 */
+	@Test
+	@DisplayName("Streams")
+	public void testStreams() {
+		Trie trie = new Trie();
+		
+		for(String word: CAPITALS)
+			trie.put(word);
+		assertEquals(new HashSet<>(CAPITALS),trie.stream().collect(Collectors.toSet()));
+		assertEquals(new HashSet<>(CAPITALS),trie.parallelStream().collect(Collectors.toSet()));
+		assertEquals(CAPITALS.size(),trie.parallelStream().count());
+		
+		trie.compact();
+		assertEquals(new HashSet<>(CAPITALS),trie.stream().collect(Collectors.toSet()));
+		assertEquals(new HashSet<>(CAPITALS),trie.parallelStream().collect(Collectors.toSet()));
+		assertEquals(CAPITALS.size(),trie.parallelStream().count());
+	}
+	
+	/**
+	 * Test that splitting hands over top-level subtries
+	 */
+	@Test
+	@DisplayName("Split")
+	public void testSplit() {
+		Trie trie = new Trie();
+		
+		for(String word: CAPITALS)
+			trie.put(word);
+		trie.compact();
+		
+		Spliterator<String> second = trie.spliterator();
+		Spliterator<String> first = second.trySplit();
+		assertNotNull(first,"Split expected with many top-level children");
+		
+		HashSet<String> obtained = new HashSet<>();
+		first.forEachRemaining(obtained::add);
+		assertTrue(obtained.contains("ABC"),"First half starts with A");
+		second.forEachRemaining(word -> assertTrue(obtained.add(word),"Words are distinct"));
+		assertEquals(new HashSet<>(CAPITALS),obtained);
+	}
+	
+	private boolean search(Trie trie, String word) {
+		Trie.Search search = trie.startSearch();
+		for(int i=0; i<word.length(); i++)
+			if(!search.continueWith(word.charAt(i)))
+				return false;
+		return search.isWord();
+	}
+	
 }
@@ -0,0 +1,84 @@
+package wwwordz.shared;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Puzzle snapshot")
+public class PuzzleSnapshotTest {
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Check that a snapshot decodes to a copy of the puzzle, unaffected by later changes to it
+	 */
+	@Test
+	@DisplayName("Frozen puzzle")
+	public void testFrozen() {
+		Puzzle puzzle = PuzzleTest.puzzle();
+		PuzzleSnapshot snapshot = new PuzzleSnapshot(puzzle);
+		puzzle.getTable().setLetter(1, 1, 'X');
+
+		Puzzle copy = snapshot.getPuzzle();
+		assertNotSame(copy,snapshot.getPuzzle(),"Copies expected");
+		assertEquals('P',copy.getTable().getLetter(1, 1),"Letter when snapshot was taken");
+		assertEquals(3,copy.getSolutions().size());
+		assertEquals(3,snapshot.getSolutionCount());
+		assertEquals(42,snapshot.getSeed());
+		assertEquals(4,snapshot.getSize());
+	}
+
+	/**
+	 * Check the encoded and compressed bytes, and writing them to a channel
+	 * @throws IOException
+	 */
+	@Test
+	@DisplayName("Encoded bytes")
+	public void testEncoded() throws IOException {
+		PuzzleSnapshot snapshot = new PuzzleSnapshot(PuzzleTest.puzzle());
+		byte[] encoded = bytes(snapshot.getEncoded());
+
+		assertTrue(snapshot.getEncoded().isReadOnly(),"Read-only buffer expected");
+		assertEquals(snapshot.getLength(),encoded.length);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(encoded.length,snapshot.writeTo(Channels.newChannel(out)));
+		assertArrayEquals(encoded,out.toByteArray(),"Same bytes written");
+
+		out.reset();
+		assertEquals(snapshot.getCompressedLength(),snapshot.writeCompressedTo(Channels.newChannel(out)));
+		try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			assertArrayEquals(encoded,in.readAllBytes(),"Compressed bytes of encoded puzzle");
+		}
+	}
+
+	/**
+	 * Check a snapshot of a puzzle without table nor solutions
+	 */
+	@Test
+	@DisplayName("Empty puzzle")
+	public void testEmpty() {
+		PuzzleSnapshot snapshot = new PuzzleSnapshot(new Puzzle());
+
+		assertEquals(0,snapshot.getSize());
+		assertEquals(0,snapshot.getSolutionCount());
+		assertNull(snapshot.getPuzzle().getTable(),"No table");
+		assertNull(snapshot.getPuzzle().getSolutions(),"No solutions");
+	}
+}
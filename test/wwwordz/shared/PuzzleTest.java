@@ -0,0 +1,157 @@
+package wwwordz.shared;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.shared.Puzzle.Solution;
+
+@DisplayName("Puzzle")
+public class PuzzleTest {
+
+	/**
+	 * Puzzle with the table of TableTest and some of its solutions
+	 */
+	static Puzzle puzzle() {
+		Table table = new Table(TableTest.data);
+		List<Solution> solutions = new ArrayList<>();
+		solutions.add(new Solution("PATO", Arrays.asList(table.getCell(1,1), table.getCell(1,2), table.getCell(1,3), table.getCell(1,4))));
+		solutions.add(new Solution("COLA", Arrays.asList(table.getCell(2,1), table.getCell(2,2), table.getCell(2,3), table.getCell(2,4))));
+		solutions.add(new Solution("BOCA", Arrays.asList(table.getCell(3,1), table.getCell(3,2), table.getCell(2,1), table.getCell(1,2))));
+		Puzzle puzzle = new Puzzle();
+		puzzle.setTable(table);
+		puzzle.setSolutions(solutions);
+		puzzle.setSeed(42);
+		return puzzle;
+	}
+
+	/**
+	 * Check encoded paths and cells created from them
+	 */
+	@Test
+	@DisplayName("Paths")
+	public void testPaths() {
+		Table table = new Table(TableTest.data);
+		byte[] shared = { 0, Solution.encode(3,1), Solution.encode(3,2), Solution.encode(2,1), Solution.encode(1,2) };
+		Solution solution = new Solution("BOCA", shared, 1);
+
+		assertArrayEquals(new byte[] { 0x31, 0x32, 0x21, 0x12 },solution.getPath(),"Row and column nibbles");
+		assertEquals(Arrays.asList(table.getCell(3,1), table.getCell(3,2), table.getCell(2,1), table.getCell(1,2)),
+				solution.getCells(),"Cells in traversal order");
+		assertArrayEquals(solution.getPath(),puzzle().getSolution("BOCA").getPath(),"Same path from cells");
+	}
+
+	/**
+	 * Check that serialized puzzles keep their table, solutions and index
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Test
+	@DisplayName("Serialization")
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		Puzzle puzzle = puzzle();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(puzzle);
+			out.writeObject(new Puzzle());
+		}
+		Puzzle copy, empty;
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (Puzzle) in.readObject();
+			empty = (Puzzle) in.readObject();
+		}
+
+		assertEquals(puzzle.getTable(),copy.getTable(),"Same table");
+		assertEquals(42,copy.getSeed());
+		assertEquals(puzzle.getSolutions().size(),copy.getSolutions().size(),"Same number of solutions");
+		for(int i=0; i<puzzle.getSolutions().size(); i++) {
+			assertEquals(puzzle.getSolutions().get(i).getWord(),copy.getSolutions().get(i).getWord(),"Same word");
+			assertEquals(puzzle.getSolutions().get(i).getCells(),copy.getSolutions().get(i).getCells(),"Same cells");
+		}
+		assertEquals(3,copy.getPoints("BOCA"),"Index of copy");
+		assertNull(empty.getSolutions(),"No solutions");
+	}
+
+	/**
+	 * Check that solutions whose words can't be read from the table are serialized with their words
+	 * 1) solution with fewer cells than letters
+	 * 2) solutions without a table
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Test
+	@DisplayName("Serialization of words")
+	public void testSerializationOfWords() throws IOException, ClassNotFoundException {
+		Puzzle puzzle = puzzle();
+		List<Solution> solutions = new ArrayList<>(puzzle.getSolutions());
+		solutions.add(new Solution("ABC", Collections.emptyList()));
+		puzzle.setSolutions(solutions);
+		Puzzle tableless = new Puzzle();
+		tableless.setSolutions(solutions);
+
+		for(Puzzle original : Arrays.asList(puzzle, tableless)) {
+			Puzzle copy = copy(original);
+			assertEquals(original.getTable(),copy.getTable(),"Same table");
+			assertEquals(solutions.size(),copy.getSolutions().size(),"Same number of solutions");
+			for(int i=0; i<solutions.size(); i++) {
+				assertEquals(solutions.get(i).getWord(),copy.getSolutions().get(i).getWord(),"Same word");
+				assertArrayEquals(solutions.get(i).getPath(),copy.getSolutions().get(i).getPath(),"Same path");
+			}
+			assertEquals(0,copy.getSolution("ABC").getCells().size(),"No cells");
+		}
+	}
+
+	/**
+	 * Check the solution index: a single solution per word, iterated in the order of their ordinals, 
+	 * and an index that can't be modified
+	 */
+	@Test
+	@DisplayName("Solution index")
+	public void testSolutionIndex() {
+		Puzzle puzzle = puzzle();
+		List<Solution> solutions = new ArrayList<>(puzzle.getSolutions());
+		Solution repeated = new Solution("COLA", Collections.emptyList());
+		solutions.add(repeated);
+		puzzle.setSolutions(solutions);
+		Puzzle.SolutionIndex index = puzzle.getSolutionIndex();
+
+		assertEquals(3,index.size(),"A solution per word");
+		assertNotSame(repeated,index.get("COLA"),"First solution kept");
+		int ordinal = 0;
+		for(Map.Entry<String,Solution> entry : index.entrySet()) {
+			assertEquals(ordinal,puzzle.getOrdinal(entry.getKey()),"Iterated by ordinal");
+			assertSame(entry.getValue(),index.getSolution(ordinal++),"Solution of ordinal");
+		}
+		assertEquals(-1,puzzle.getOrdinal("XPTO"),"Not a solution");
+		assertEquals(-1,puzzle.getOrdinal(null),"No word");
+		assertThrows(UnsupportedOperationException.class, () -> index.put("XPTO", repeated));
+		assertThrows(UnsupportedOperationException.class, () -> index.keySet().iterator().remove());
+	}
+
+	private static Puzzle copy(Puzzle puzzle) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(puzzle);
+		}
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (Puzzle) in.readObject();
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package wwwordz.shared;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Iterator;
@@ -66,6 +70,105 @@ public class TableTest {
 	}
 
 	
+	/**
+	 * Check tables of other sizes
+	 * 1) number of cells
+	 * 2) number of neighbors in corners and in the middle
+	 */
+	@Test
+	@DisplayName("Tables of other sizes")
+	public void sizes() {
+		for(int size = 1; size <= 8; size++) {
+			Table other = new Table(size);
+			int count = 0;
+			for(Cell cell: other) {
+				assertNotNull(cell,"cell expected");
+				count++;
+			}
+			assertEquals(size,other.getSize());
+			assertEquals(size*size,count,"Table should have "+(size*size)+" cells");
+			assertEquals(size*size,other.getEmptyCells().size(),"All cells should be empty");
+			if(size >= 2)
+				assertEquals(3,other.getNeighbors(other.getCell(size,size)).size(),"Corner has 3 neighbors");
+			if(size >= 3)
+				assertEquals(8,other.getNeighbors(other.getCell(2,2)).size(),"Middle has 8 neighbors");
+		}
+		assertEquals(4,new Table(data).getSize(),"Size from data");
+	}
+	
+	/**
+	 * Check table fingerprints
+	 * 1) tables with same letters have equal fingerprints, regardless of how they were created
+	 * 2) changing a letter changes the fingerprint
+	 * 3) a 4 by 4 table with letters from A to Z is packed in 2 longs
+	 */
+	@Test
+	@DisplayName("Fingerprint")
+	public void fingerprint() {
+		Table table1 = new Table(data);
+		Table table2 = new Table(4);
+		int row = 0;
+		for(String line: data) {
+			row++;
+			for(int column=1; column<=line.length(); column++)
+				table2.setLetter(row, column, line.charAt(column-1));
+		}
+		
+		assertEquals(table1.getFingerprint(),table2.getFingerprint(),"Same letters, same fingerprint");
+		assertEquals(table1.getFingerprint().hashCode(),table2.getFingerprint().hashCode());
+		assertEquals(table1,table2,"Same letters, equal tables");
+		assertEquals(2,table1.getFingerprint().toLongArray().length,"Packed in 2 longs");
+		
+		table2.setLetter(4, 4, 'A');
+		assertNotEquals(table1.getFingerprint(),table2.getFingerprint(),"Different letters, different fingerprint");
+		assertNotEquals(new Table(4).getFingerprint(),new Table(5).getFingerprint(),"Different sizes, different fingerprint");
+		assertNotEquals(new Table(new String[] {"a"}).getFingerprint(),new Table(new String[] {"A"}).getFingerprint());
+	}
+	
+	/**
+	 * Check index based accessors
+	 * 1) indexes in row-major order
+	 * 2) neighbor indexes shared by tables of the same size
+	 * 3) empty cells counted as letters are set
+	 * 4) cells are views of the table
+	 */
+	@Test
+	@DisplayName("Index based accessors")
+	public void indexes() {
+		Table table1 = new Table(data);
+		
+		assertEquals(5,table1.index(2,2));
+		assertEquals('O',table1.getLetter(5));
+		assertArrayEquals(new int[] {1,4,5},table1.getNeighbors(0));
+		assertSame(table1.getNeighbors(0),table.getNeighbors(0),"Shared neighbors");
+		
+		assertEquals(16,table.getEmptyCount());
+		table.setLetter(0,'A');
+		table.getCell(4,4).setLetter('B');
+		assertEquals(14,table.getEmptyCount());
+		assertEquals('B',table.getLetter(15),"Cell writes to table");
+		table.setLetter(4,4,'C');
+		assertEquals('C',table.getCell(4,4).getLetter(),"Cell reads from table");
+		table.setLetter(0,'\0');
+		assertEquals(15,table.getEmptyCount());
+		assertEquals(15,table.getEmptyCells().size());
+	}
+	
+	/**
+	 * Check that rows and columns outside the table are rejected, including those next to its border
+	 */
+	@Test
+	@DisplayName("Positions outside table")
+	public void outside() {
+		int[][] positions = { {0,1}, {1,0}, {5,1}, {1,5}, {0,5}, {-1,2} };
+		for(int[] position: positions) {
+			assertThrows(IndexOutOfBoundsException.class,() -> table.getLetter(position[0],position[1]));
+			assertThrows(IndexOutOfBoundsException.class,() -> table.setLetter(position[0],position[1],'A'));
+			assertThrows(IndexOutOfBoundsException.class,() -> table.getCell(position[0],position[1]));
+		}
+		assertEquals(16,table.getEmptyCount(),"Table unchanged");
+	}
+	
 	public final static String[] data = {
 			"PATO",
 			"COLA",
@@ -0,0 +1,100 @@
+package wwwordz.shared;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.puzzle.Generator;
+
+/**
+ * Benchmarks of the wire codec against default serialization, reported on standard output.
+ */
+@Tag("benchmark")
+@DisplayName("Wire codec benchmark")
+public class WireCodecBenchmark {
+
+	static final int PUZZLES = 50;
+	static final int REPETITIONS = 20;
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return in.readObject();
+		}
+	}
+
+	/**
+	 * Report size, encode and decode time of puzzles for tables of size 4, 6 and 8
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	@Test
+	@DisplayName("Puzzles")
+	public void puzzles() throws IOException, ClassNotFoundException {
+		for(int size = 4; size <= 8; size += 2) {
+			Generator generator = new Generator(size);
+			List<Puzzle> puzzles = new ArrayList<>();
+			for(long seed=0; seed<PUZZLES; seed++)
+				puzzles.add(generator.generate(seed));
+
+			long serializedSize = 0, codecSize = 0;
+			long serializeTime = 0, deserializeTime = 0, encodeTime = 0, decodeTime = 0;
+			for(int repetition=0; repetition<REPETITIONS; repetition++) {
+				boolean measure = repetition >= REPETITIONS / 2;
+				for(Puzzle puzzle : puzzles) {
+					long start = System.nanoTime();
+					byte[] serialized = serialize(puzzle);
+					long middle = System.nanoTime();
+					deserialize(serialized);
+					long end = System.nanoTime();
+					byte[] encoded = WireCodec.encode(puzzle);
+					long afterEncode = System.nanoTime();
+					WireCodec.decodePuzzle(encoded);
+					long afterDecode = System.nanoTime();
+					if(measure) {
+						serializeTime += middle - start;
+						deserializeTime += end - middle;
+						encodeTime += afterEncode - end;
+						decodeTime += afterDecode - afterEncode;
+						serializedSize += serialized.length;
+						codecSize += encoded.length;
+					}
+				}
+			}
+			long count = (long) PUZZLES * (REPETITIONS - REPETITIONS / 2);
+			System.out.printf("%dx%d serialization: %6d bytes, encode %7.1f us, decode %7.1f us%n",
+					size, size, serializedSize / count, serializeTime / 1e3 / count, deserializeTime / 1e3 / count);
+			System.out.printf("%dx%d wire codec:    %6d bytes, encode %7.1f us, decode %7.1f us%n",
+					size, size, codecSize / count, encodeTime / 1e3 / count, decodeTime / 1e3 / count);
+		}
+	}
+
+	/**
+	 * Report size of a ranking with 100 players
+	 * @throws IOException
+	 */
+	@Test
+	@DisplayName("Ranking")
+	public void ranking() throws IOException {
+		ArrayList<Rank> ranking = new ArrayList<>();
+		for(int i=0; i<100; i++)
+			ranking.add(new Rank("player" + i, 1000 - i, 10000 + i));
+		System.out.printf("Ranking of 100: serialization %d bytes, wire codec %d bytes%n",
+				serialize(ranking).length, WireCodec.encode(ranking).length);
+	}
+}
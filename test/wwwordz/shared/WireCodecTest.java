@@ -0,0 +1,160 @@
+package wwwordz.shared;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import wwwordz.puzzle.Generator;
+
+@DisplayName("Wire codec")
+public class WireCodecTest {
+
+	private static void assertSamePuzzle(Puzzle expected, Puzzle obtained) {
+		assertEquals(expected.getTable(),obtained.getTable(),"Same table");
+		assertEquals(expected.getSeed(),obtained.getSeed(),"Same seed");
+		assertEquals(expected.getDictionaryVersion(),obtained.getDictionaryVersion(),"Same dictionary version");
+		assertEquals(expected.getSolutions().size(),obtained.getSolutions().size(),"Same number of solutions");
+		for(int i=0; i<expected.getSolutions().size(); i++) {
+			assertEquals(expected.getSolutions().get(i).getWord(),obtained.getSolutions().get(i).getWord(),"Same word");
+			assertEquals(expected.getSolutions().get(i).getCells(),obtained.getSolutions().get(i).getCells(),"Same cells");
+		}
+	}
+
+	/**
+	 * Check round trip of puzzles of several sizes, and of a puzzle without solutions
+	 */
+	@Test
+	@DisplayName("Puzzle round trip")
+	public void testPuzzle() {
+		assertSamePuzzle(PuzzleTest.puzzle(),WireCodec.decodePuzzle(WireCodec.encode(PuzzleTest.puzzle())));
+		for(int size=1; size<=8; size++) {
+			Generator generator = new Generator(size);
+			for(long seed=0; seed<5; seed++) {
+				Puzzle puzzle = generator.generate(seed);
+				assertSamePuzzle(puzzle,WireCodec.decodePuzzle(WireCodec.encode(puzzle)));
+			}
+		}
+		Puzzle empty = new Puzzle();
+		empty.setTable(new Table());
+		assertNull(WireCodec.decodePuzzle(WireCodec.encode(empty)).getSolutions(),"No solutions");
+		assertNull(WireCodec.decodePuzzle(WireCodec.encode(new Puzzle())).getTable(),"No table");
+	}
+
+	/**
+	 * Check round trip of solutions whose words can't be decoded from the table
+	 * 1) solution with fewer cells than letters
+	 * 2) solutions without a table
+	 */
+	@Test
+	@DisplayName("Spelled solutions round trip")
+	public void testSpelled() {
+		Puzzle puzzle = PuzzleTest.puzzle();
+		List<Puzzle.Solution> solutions = new ArrayList<>(puzzle.getSolutions());
+		solutions.add(new Puzzle.Solution("ABC", Collections.emptyList()));
+		puzzle.setSolutions(solutions);
+		Puzzle tableless = new Puzzle();
+		tableless.setSolutions(solutions);
+
+		for(Puzzle original : Arrays.asList(puzzle, tableless)) {
+			Puzzle decoded = WireCodec.decodePuzzle(WireCodec.encode(original));
+			assertEquals(original.getTable(),decoded.getTable(),"Same table");
+			assertEquals(solutions.size(),decoded.getSolutions().size(),"Same number of solutions");
+			for(int i=0; i<solutions.size(); i++) {
+				assertEquals(solutions.get(i).getWord(),decoded.getSolutions().get(i).getWord(),"Same word");
+				assertArrayEquals(solutions.get(i).getPath(),decoded.getSolutions().get(i).getPath(),"Same path");
+			}
+		}
+	}
+
+	/**
+	 * Check round trip of tables, with letters from A to Z, empty cells and other letters
+	 */
+	@Test
+	@DisplayName("Table round trip")
+	public void testTable() {
+		Table table = new Table(TableTest.data);
+		byte[] encoded = WireCodec.encode(table);
+		assertEquals(2 + 1 + 1 + 10,encoded.length,"16 letters packed in 10 bytes");
+		assertEquals(table,WireCodec.decodeTable(encoded));
+
+		Table partial = new Table(5);
+		partial.setLetter(3, 3, 'Z');
+		assertEquals(partial,WireCodec.decodeTable(WireCodec.encode(partial)));
+
+		Table other = new Table(new String[] { "aÇ", "Z中" });
+		assertEquals(other,WireCodec.decodeTable(WireCodec.encode(other)));
+	}
+
+	/**
+	 * Check round trip of rankings, with negative and large points and null or non-ASCII nicks
+	 */
+	@Test
+	@DisplayName("Ranking round trip")
+	public void testRanking() {
+		List<Rank> ranking = Arrays.asList(
+				new Rank("fulano", 100, 5000),
+				new Rank("João", -1, Integer.MAX_VALUE),
+				new Rank(null, Integer.MIN_VALUE, 0));
+		List<Rank> decoded = WireCodec.decodeRanking(WireCodec.encode(ranking));
+
+		assertEquals(ranking.size(),decoded.size());
+		for(int i=0; i<ranking.size(); i++) {
+			assertEquals(ranking.get(i).getNick(),decoded.get(i).getNick());
+			assertEquals(ranking.get(i).getPoints(),decoded.get(i).getPoints());
+			assertEquals(ranking.get(i).getAccumulated(),decoded.get(i).getAccumulated());
+		}
+		assertTrue(WireCodec.encode(ranking.subList(0, 1)).length < 16,"Compact rank expected");
+	}
+
+	/**
+	 * Check that messages of another version, another type or truncated are rejected
+	 */
+	@Test
+	@DisplayName("Invalid messages")
+	public void testInvalid() {
+		byte[] encoded = WireCodec.encode(new Table(TableTest.data));
+
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodePuzzle(encoded),"Another type");
+		byte[] version = encoded.clone();
+		version[0] = WireCodec.VERSION + 1;
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeTable(version),"Another version");
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeTable(Arrays.copyOf(encoded, 6)),"Truncated");
+		assertArrayEquals(encoded,WireCodec.encode(WireCodec.decodeTable(encoded)),"Same encoding");
+
+		byte[] puzzle = WireCodec.encode(new Generator().generate(0));
+		for(int length=0; length<puzzle.length; length++) {
+			byte[] truncated = Arrays.copyOf(puzzle, length);
+			assertThrows(IllegalArgumentException.class, () -> WireCodec.decodePuzzle(truncated),"Truncated puzzle");
+		}
+		byte[] small = WireCodec.encode(PuzzleTest.puzzle());
+		int solutions = 2 + 8 + 8 + 1 + 1 + 10;
+		byte[] longPath = small.clone();
+		longPath[solutions + 1] = (byte) (17 << 1);
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodePuzzle(longPath),"Path longer than table");
+		byte[] outside = small.clone();
+		outside[solutions + 2] = Puzzle.Solution.encode(5, 1);
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodePuzzle(outside),"Path outside table");
+		byte[] huge = { WireCodec.VERSION, WireCodec.TABLE, (byte) 0xFF, (byte) 0xFF, 0x7F, 0 };
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeTable(huge),"Huge table");
+
+		byte[] ranking = WireCodec.encode(Arrays.asList(new Rank("fulano", 100, 5000), new Rank("João", -1, 7)));
+		for(int length=0; length<ranking.length; length++) {
+			byte[] truncated = Arrays.copyOf(ranking, length);
+			assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeRanking(truncated),"Truncated ranking");
+		}
+		byte[] crowded = { WireCodec.VERSION, WireCodec.RANKING, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeRanking(crowded),"Huge count of ranks");
+		byte[] many = { WireCodec.VERSION, WireCodec.RANKING, (byte) 0xFF, (byte) 0xFF, 0x7F };
+		assertThrows(IllegalArgumentException.class, () -> WireCodec.decodeRanking(many),"More ranks than bytes");
+	}
+}